@@ -0,0 +1,159 @@
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Benchmark suite for graph construction, the GraphLib algorithms and the
+ * BaconGame queries. Every benchmark warms up for a fixed time, then runs for
+ * a fixed time and reports the mean time per operation, the bytes allocated
+ * per operation and per second by the benchmarking thread, and the collections
+ * and collector time spent while measuring. Runs against the *Test.txt
+ * fixtures, the full files, and generated data sets of growing size.
+ *
+ * usage: BaconBenchmark [test] [full] [synthetic] [warmup seconds] [measure seconds]
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class BaconBenchmark {
+
+    //one operation under test, its result is consumed so the JIT cannot drop the work
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    //results land here so the work behind them stays live
+    static volatile int sink;
+
+    //actor counts for the synthetic scaling curve, movies and casts scale along with them
+    static final int[] SYNTHETIC_ACTORS = {10_000, 20_000, 40_000, 80_000};
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //constructor sets how long each benchmark warms up and measures
+    public BaconBenchmark(double warmupSeconds, double measureSeconds) {
+        warmupNanos = (long) (warmupSeconds * 1e9);
+        measureNanos = (long) (measureSeconds * 1e9);
+    }
+
+    //total collections and collector milliseconds so far, across all collectors
+    private static long[] gcTotals() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, gc.getCollectionCount());
+            totals[1] += Math.max(0, gc.getCollectionTime());
+        }
+        return totals;
+    }
+
+    //warms up and measures one operation, then prints one result line
+    public void run(String dataset, String name, Operation operation) throws Exception {
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) {
+            sink += Objects.hashCode(operation.run());
+        }
+
+        long[] gcBefore = gcTotals();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        long operations = 0;
+        long now;
+        do {
+            sink += Objects.hashCode(operation.run());
+            operations++;
+            now = System.nanoTime();
+        } while (now - begin < measureNanos);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long[] gcAfter = gcTotals();
+
+        double seconds = (now - begin) / 1e9;
+        System.out.printf("%-22s %-36s %9d ops %14.3f us/op %14.0f B/op %9.1f MB/s alloc %5d gc %6d ms gc%n",
+                dataset, name, operations, seconds * 1e6 / operations, (double) allocated / operations,
+                allocated / seconds / (1 << 20), gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    //runs every benchmark against one data set, the all-centers ranking only when asked
+    public void suite(String dataset, String actorFile, String movieFile, String movieActorFile,
+                      boolean ranking) throws Exception {
+        run(dataset, "BaconGraph construction", () -> new BaconGraph(actorFile, movieFile, movieActorFile));
+
+        BaconGraph graph = new BaconGraph(actorFile, movieFile, movieActorFile);
+        Graph<String, Set<String>> g = graph.actorMovieGraph;
+        String center = "Kevin Bacon";
+        Graph<String, Set<String>> tree = GraphLib.bfs(g, center);
+
+        //a fixed spread of reachable actors that path queries cycle through
+        List<String> targets = new ArrayList<>();
+        for (String actor : tree.vertices()) {
+            if (!actor.equals(center) && targets.size() < 64) {
+                targets.add(actor);
+            }
+        }
+        int[] next = new int[1];
+
+        run(dataset, "GraphLib.bfs", () -> GraphLib.bfs(g, center));
+        run(dataset, "GraphLib.bfs (CSRGraph)", () -> GraphLib.bfs(graph.actorCSRGraph, center));
+
+        //what BaconGame.centerTree costs on a cache miss, a fresh tree build every time
+        run(dataset, "ShortestPathTree build", () -> new ShortestPathTree(graph.actorCSRGraph, center));
+        run(dataset, "GraphLib.getPath", () -> GraphLib.getPath(tree, targets.get(next[0]++ % targets.size())));
+        run(dataset, "GraphLib.averageSeparation", () -> GraphLib.averageSeparation(tree, center));
+        run(dataset, "GraphLib.verticesByInDegree", () -> GraphLib.verticesByInDegree(g));
+        run(dataset, "GraphLib.topByInDegree(10)", () -> GraphLib.topByInDegree(g, 10));
+        run(dataset, "GraphLib.missingVertices", () -> GraphLib.missingVertices(g, tree));
+        run(dataset, "GraphLib.randomWalk(100)", () -> GraphLib.randomWalk(g, center, 100));
+        RandomWalker walker = new RandomWalker(graph.actorCSRGraph);
+        int[] starts = new int[1000];
+        Arrays.fill(starts, graph.actorCSRGraph.indexOf(center));
+        run(dataset, "RandomWalker.walks(1000 x 100)", () -> walker.walks(starts, 100, next[0]++));
+
+        //game queries, the path query on a game with no tree yet so it takes the search path
+        BaconGame game = new BaconGame(graph);
+        run(dataset, "BaconGame.pathToCenter", () -> game.pathToCenter(targets.get(next[0]++ % targets.size())));
+        run(dataset, "BaconGame.lowToHighDegree(1,50)", () -> game.lowToHighDegree(1, 50));
+        run(dataset, "BaconGame.mostConnected(10)", () -> game.mostConnected(10));
+        run(dataset, "BaconGame.lowHighSortSeparation", () -> game.lowHighSortSeparation(1, 4));
+        if (ranking) {
+            run(dataset, "BaconGame.avgSeperationList(10)", () -> game.avgSeperationList(10));
+        }
+    }
+
+    //main runs the chosen data sets, all three when none is named
+    public static void main(String[] args) throws Exception {
+        Set<String> sets = new HashSet<>();
+        List<Double> times = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.matches("[0-9.]+")) {
+                times.add(Double.parseDouble(arg));
+            }
+            else {
+                sets.add(arg);
+            }
+        }
+        if (sets.isEmpty()) {
+            sets.addAll(Arrays.asList("test", "full", "synthetic"));
+        }
+        BaconBenchmark benchmark = new BaconBenchmark(times.size() > 0 ? times.get(0) : 1,
+                times.size() > 1 ? times.get(1) : 2);
+
+        if (sets.contains("test")) {
+            benchmark.suite("test fixtures", "PS4/actorsTest.txt", "PS4/moviesTest.txt", "PS4/movie-actorsTest.txt", true);
+        }
+        if (sets.contains("full")) {
+            benchmark.suite("full files", "PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt", true);
+        }
+        if (sets.contains("synthetic")) {
+            for (int actors : SYNTHETIC_ACTORS) {
+                File directory = new File(System.getProperty("java.io.tmpdir"), "bacon-synthetic-" + actors);
+                SyntheticGraph.generate(directory, actors, actors / 2, 6, actors);
+                benchmark.suite("synthetic " + actors, new File(directory, SyntheticGraph.ACTORS).getPath(),
+                        new File(directory, SyntheticGraph.MOVIES).getPath(),
+                        new File(directory, SyntheticGraph.MOVIE_ACTORS).getPath(), false);
+            }
+        }
+    }
+}
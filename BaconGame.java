@@ -1,3 +1,4 @@
+import java.io.PrintStream;
 import java.util.*;
 import java.util.Set;
 
@@ -14,89 +15,204 @@ public class BaconGame {
     //graph of all actors
     BaconGraph graph;
 
-    //shortest path graph
-    Graph<String, Set<String>> bfs;
+    //shortest path graph from the center, null until a command needs the whole tree
+    ShortestPathTree bfs;
 
-    //constructor creates a new graph and shortest path graph from the center of the universe to
-    //all other actors
+    //parallel all-sources separation over the compact graph
+    SeparationEngine separation;
+
+    //shortest path trees of recently used centers
+    PathTreeCache trees;
+
+    //best and worst centers of the current center's component
+    CenterRanking ranking;
+
+    //searches out from groups of actors at once
+    NeighborhoodSearch neighborhoods;
+
+    //where every answer is printed, the console unless a server session supplies its socket
+    PrintStream out;
+
+    //command letters the game answers, latencies of anything else are recorded as invalid
+    static final Set<String> COMMANDS = Set.of("a", "c", "d", "g", "i", "n", "p", "q", "s", "t", "u");
+
+    //constructor creates a new graph, the shortest path graph from the center of the universe
+    //is built the first time a command needs it
     public BaconGame() throws Exception {
+        this(BaconGraph.load("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt", "PS4/bacon.snapshot"));
+    }
+
+    //constructor plays on an already loaded graph with Kevin Bacon as the center
+    public BaconGame(BaconGraph graph) {
+        this(graph, new SeparationEngine(graph.actorCSRGraph), new PathTreeCache(graph.actorCSRGraph, 8), System.out);
+    }
+
+    //constructor for one session of many sharing the graph, engine and tree cache. the
+    //session keeps its own center and prints to its own stream
+    public BaconGame(BaconGraph graph, SeparationEngine separation, PathTreeCache trees, PrintStream out) {
         cou = "Kevin Bacon";
 
-        graph = new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt");
-        bfs = GraphLib.bfs(graph.actorMovieGraph, cou);
+        this.graph = graph;
+        this.separation = separation;
+        this.trees = trees;
+        ranking = new CenterRanking(graph.actorCSRGraph, separation);
+        neighborhoods = new NeighborhoodSearch(graph.actorCSRGraph);
+        this.out = out;
     }
 
-    //check to see if an actor is in graph
-    public boolean isValidActor(String actor){
-        if(!graph.actorIDtoName.containsValue(actor)){
-            System.out.println(actor + " is not in the list of actors");
-            return false;
+    //turns what the user typed into an actor's exact name, matching case, accents and
+    //spacing loosely. prints close names and returns null if no single actor matches
+    public String resolveActor(String input){
+        int id = graph.actorSymbols.lookup(input);
+        if(id >= 0){
+            return graph.actorSymbols.name(id);
+        }
+        out.println(input + " is not in the list of actors");
+        List<String> close = graph.actorSymbols.matches(input);
+        if(close.isEmpty()){
+            close = graph.actorSymbols.complete(input, 10);
+        }
+        if(!close.isEmpty()){
+            out.println("did you mean: " + close);
         }
-        return true;
+        return null;
     }
 
-    //returns a list of n actors with the highest or lowest connectedness
-    public List<String> avgSeperationList(int num){
-        Map<String, Double> sepMap = new HashMap<>();
-
-        //fill seperation map
-        for(String actorID: graph.actorIDtoName.keySet()){
-            String actorName = graph.actorIDtoName.get(actorID);
-            bfs = GraphLib.bfs(graph.actorMovieGraph, actorName);
-
-            if (bfs.hasVertex("Kevin Bacon")) {
-                sepMap.put(actorName, GraphLib.averageSeparation(bfs, actorName));
+    //ids of the comma-separated actors in input, each matched like resolveActor. null if
+    //any of them does not match a single actor
+    public int[] resolveGroup(String input){
+        String[] names = input.split(",");
+        int[] group = new int[names.length];
+        for(int i = 0; i < names.length; i++){
+            String actor = resolveActor(names[i].trim());
+            if(actor == null){
+                return null;
             }
+            group[i] = graph.actorCSRGraph.indexOf(actor);
         }
+        return group;
+    }
 
-        //get shortest path graph from center of universe
-        bfs = GraphLib.bfs(graph.actorMovieGraph, cou);
-        List<String> sortedList = new ArrayList<>(sepMap.keySet());
-        //if input is negative sort lowest to highest
-        if (num > 0) {
-            sortedList.sort(Comparator.comparingDouble(sepMap::get));
+    //returns the shortest path tree for the current center, from the cache or built if needed
+    public ShortestPathTree centerTree(){
+        if(bfs == null){
+            bfs = trees.get(cou);
         }
-        //else sort highest to lowest
-        else {
-            sortedList.sort((V1, V2) -> Double.compare(sepMap.get(V2), sepMap.get(V1)));
+        return bfs;
+    }
+
+    //adds a delta of actors, movies and cast records to the live graph, any file may be null.
+    //cached trees are repaired for the new edges rather than rebuilt. returns how many actors
+    //gained co-stars
+    public int update(String actorFile, String movieFile, String movieActorFile) throws Exception {
+        int[] touched = graph.update(actorFile, movieFile, movieActorFile);
+        trees.repair(graph.actorCSRGraph, touched);
+        separation = new SeparationEngine(graph.actorCSRGraph);
+        ranking = new CenterRanking(graph.actorCSRGraph, separation);
+        neighborhoods = new NeighborhoodSearch(graph.actorCSRGraph);
+        if(bfs != null){
+            bfs = trees.peek(cou);
         }
+        return touched.length;
+    }
 
+    //path from the center of the universe to an actor, read off the cached tree if there is one,
+    //otherwise found with a bidirectional search that stops once the two sides meet
+    public List<String> pathToCenter(String actor){
+        if(bfs != null){
+            return GraphLib.getPath(bfs, actor);
+        }
 
-        //truncate sorted list to on n actors
-        List<String> sizedList = new ArrayList<>();
-        int size = sortedList.size();
-        for (int i = 0; i < Math.abs(num); i++) {
+        //actors in another component have no path, no search needed to find that out
+        if(!graph.actorCSRGraph.connected(cou, actor)){
+            return null;
+        }
+        Graph<String, Set<String>> pathTree = GraphLib.bidirectionalBFS(graph.actorMovieGraph, cou, actor);
+        return pathTree == null ? null : GraphLib.getPath(pathTree, actor);
+    }
 
-            //makes sure smallest list between
-            //sorted list size and num is created
-            if(i > size){
-                break;
-            }
+    //actors within k steps of any actor in the group, nearest first and the group itself left
+    //out. only the k-step neighborhood is searched, so k must not be negative
+    public List<String> nearGroup(int[] group, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("steps must not be negative: " + k);
+        }
+        NeighborhoodSearch.Neighborhood near = neighborhoods.expand(group, k);
+        List<String> names = new ArrayList<>();
+        for(int i = near.levelStart[1]; i < near.size(); i++){
+            names.add(graph.actorCSRGraph.actorNames[near.order[i]]);
+        }
+        return names;
+    }
 
-            //copy over ith element of sorted list to ith index
-            sizedList.add(sortedList.get(i));
+    //path from an actor to the nearest actor in the group, shaped like pathToCenter's.
+    //the search stops as soon as it reaches the actor, null if no one in the group can
+    public List<String> pathToGroup(int[] group, String actor){
+        NeighborhoodSearch.Neighborhood near = neighborhoods.nearest(group, graph.actorCSRGraph.indexOf(actor));
+        if(near == null){
+            return null;
         }
+        List<String> path = new ArrayList<>();
+        for(int v : near.path(near.size() - 1)){
+            path.add(graph.actorCSRGraph.actorNames[v]);
+        }
+        return path;
+    }
 
-        return sizedList;
+    //prints each step of a path with the movies the two actors were in together
+    private void printPath(List<String> path){
+        for (int i = 0; i < path.size() - 1; i++) {
+            out.println("\t" + path.get(i) + " was in " +
+                    graph.actorMovieGraph.getLabel(path.get(i), path.get(i + 1)) + " with " + path.get(i + 1));
+        }
+        out.println("\n");
     }
 
+    //returns a list of n actors with the highest or lowest connectedness, lowest average
+    //separation first for a positive n and highest first for a negative n. only actors in the
+    //current center's component are ranked, and the best ones are found with a bounded heap
+    //that stops each bfs as soon as it cannot make the list
+    public List<String> avgSeperationList(int num){
+        int component = centerComponent();
+        return num > 0 ? ranking.closest(component, num) : ranking.farthest(component, -num);
+    }
 
-    //method takes the degree of all vertices(actors) in graph and reruns a list
-    //sorted lowest degree to highest.
-    public List<String> lowToHighDegree(int low, int high){
-        List<String> temp = new ArrayList<>();
-        for(String actorId: graph.actorIDtoName.keySet()){
-            String actorName = graph.actorIDtoName.get(actorId);
-            int actorDegree = graph.actorMovieGraph.inDegree(actorName);
-            if(actorDegree >= low && actorDegree <= high){
-                temp.add(actorName);
+    //same list estimated from random pivots, each average within epsilon times the
+    //diameter of the true one with high probability. epsilon must be finite and positive
+    public List<String> avgSeperationList(int num, double epsilon){
+        return ranking.approximate(centerComponent(), num, epsilon);
+    }
+
+    //id of the center of the universe's connected component
+    public int centerComponent(){
+        CSRGraph csr = graph.actorCSRGraph;
+        return csr.components.component[csr.indexOf(cou)];
+    }
+
+    //actors with no path to the center of the universe, in id order. anyone outside the
+    //center's component, so no bfs is needed
+    public List<String> unreachable(){
+        CSRGraph csr = graph.actorCSRGraph;
+        int component = centerComponent();
+        List<String> missing = new ArrayList<>();
+        for(int v = 0; v < csr.numVertices(); v++){
+            if(csr.components.component[v] != component){
+                missing.add(csr.actorNames[v]);
             }
         }
+        return missing;
+    }
 
-        //sort the temp list in increasing order
-        temp.sort((V1,V2)->Integer.compare(graph.actorMovieGraph.inDegree(V1),
-                graph.actorMovieGraph.inDegree(V2)));
-        return temp;
+    //method takes the degree of all vertices(actors) in graph and reruns a list
+    //sorted lowest degree to highest. the graph's degree index already holds the
+    //actors grouped by degree, so the answer is one slice of it
+    public List<String> lowToHighDegree(int low, int high){
+        return graph.actorCSRGraph.degrees().between(low, high);
+    }
+
+    //the num actors with the most co-stars, most connected first
+    public List<String> mostConnected(int num){
+        return graph.actorCSRGraph.degrees().top(num);
     }
 
     //method returns a list sorted lowest to highest vertices
@@ -104,136 +220,221 @@ public class BaconGame {
     public List<String> lowHighSortSeparation(int low, int high){
 
         //get shortest path tree from center of universe
-        bfs = GraphLib.bfs(graph.actorMovieGraph, cou);
-
-        //create a new list and add all vertices
-        //with path in the shortest path tree in
-        //the bounds of low and high
-        List<String> temp = new ArrayList<>();
-        for (String actor : bfs.vertices()){
-            if(GraphLib.getPath(bfs, actor) != null){
-                int size = GraphLib.getPath(bfs, actor).size();
-                if(size >= low && size <= high){
-                    temp.add(actor);
-                }
-            }
-        }
+        bfs = centerTree();
 
-        //shot list using an anonymous function
-        temp.sort((V1,V2)->Double.compare(GraphLib.getPath(bfs,V1).size()
-                ,GraphLib.getPath(bfs,V2).size()));
-        return temp;
+        //bounds count the actors on the path like getPath's size does, so an actor d steps
+        //away counts as d + 1 and the center itself is left out. the tree's levels are
+        //already in increasing distance so the answer is read off them without sorting
+        return bfs.withinDistance(Math.max(low - 1, 1), high - 1);
     }
 
     public void scanCommand(){
         /*
         c <#>: list top (positive number) or bottom (negative) <#> centers of the universe, sorted by average separation
+c <#> <error>: the same list estimated from sampled actors, within <error> times the diameter
 d <low> <high>: list actors sorted by degree, with degree between low and high
+t <#>: list the <#> actors with the most co-stars
 i: list actors with infinite separation from the current center
 p <name>: find path from <name> to current center of the universe
 s <low> <high>: list actors sorted by non-infinite separation from the current center, with separation between low and high
 u <name>: make <name> the center of the universe
+n <names> <#>: list actors within <#> steps of any of the comma-separated <names>, nearest first
+g <names> <name>: find path from <name> to the nearest of the comma-separated <names>
+a <actors> <movies> <movie-actors>: add the records in these delta files, leave any of them empty to skip it
 q: quit game
          */
-        System.out.println("Commands for Bacon Game:");
-        System.out.println("\tc <#>: list top (positive number) or bottom (negative) <#> centers of the universe, sorted by average separation\n" +
+        out.println("Commands for Bacon Game:");
+        out.println("\tc <#>: list top (positive number) or bottom (negative) <#> centers of the universe, sorted by average separation\n" +
+                "\tc <#> <error>: the same list estimated from sampled actors, within <error> times the diameter\n" +
                 "\td <low> <high>: list actors sorted by degree, with degree between low and high\n" +
+                "\tt <#>: list the <#> actors with the most co-stars\n" +
                 "\ti: list actors with infinite separation from the current center\n" +
                 "\tp <name>: find path from <name> to current center of the universe\n" +
                 "\ts <low> <high>: list actors sorted by non-infinite separation from the current center, with separation between low and high\n" +
                 "\tu <name>: make <name> the center of the universe\n" +
+                "\tn <names> <#>: list actors within <#> steps of any of the comma-separated <names>, nearest first\n" +
+                "\tg <names> <name>: find path from <name> to the nearest of the comma-separated <names>\n" +
+                "\ta <actors> <movies> <movie-actors>: add the records in these delta files, leave any of them empty to skip it\n" +
                 "\tq: quit game\n");
         Scanner scanner = new Scanner(System.in);
 
 
         //take in the input from keyboard
-        String[] command;
         boolean q = false;
         while (!q) {
 
             //prompt user to make an input
-            System.out.print("Enter a command: ");
+            out.print("Enter a command: ");
             String rawScan = scanner.nextLine();
+            q = !runCommand(rawScan);
+        }
+        // Close the scanner
+        scanner.close();
+    }
 
-            //split input
-            command = rawScan.split(":");
+    //runs one command line and prints its answer, returns false once the player quits.
+    //with metrics on, the time it took is recorded under its command letter, or under invalid
+    //so lines a client makes up cannot add histograms without end
+    public boolean runCommand(String rawScan){
+        if(!BaconMetrics.ENABLED){
+            return execute(rawScan);
+        }
+        long start = System.nanoTime();
+        try{
+            return execute(rawScan);
+        }
+        finally{
+            String[] parts = rawScan.split(":", 2);
+            String letter = parts.length == 0 ? "" : parts[0];
+            BaconMetrics.command(COMMANDS.contains(letter) ? letter : "invalid", System.nanoTime() - start);
+        }
+    }
 
-            //if what is inputed is only one character long
-            //check what command it is
-            if(command.length==1){
+    //parses and answers one command line
+    private boolean execute(String rawScan){
+        String[] command;
+        boolean q = false;
 
-                //q quits the game, ends the while loop
-                if (command[0].equals( "q")) {
-                    q=true;
-                    System.out.println("\n goodbye.");
-                }
+        //split input, keeping trailing empty fields for a, whose last file names may be left empty
+        command = rawScan.startsWith("a:") ? rawScan.split(":", -1) : rawScan.split(":");
 
-                //prints out missing actors by calling graph lib function
-                else if (command[0].equals( "i")) {
-                    System.out.println("\n The actors with infinite separation are: " +
-                            GraphLib.missingVertices(graph.actorMovieGraph ,bfs) + "\n");
-                }
+        //if what is inputed is only one character long
+        //check what command it is
+        if(command.length==1){
 
-                //if the single input doesn't match any of the okay inputs return error
-                else{
-                    System.out.println("\n" + rawScan + " is an invalid input.\n");
-                }
+            //q quits the game, ends the while loop
+            if (command[0].equals( "q")) {
+                q=true;
+                out.println("\n goodbye.");
+            }
+
+            //prints out missing actors by calling graph lib function
+            else if (command[0].equals( "i")) {
+                out.println("\n The actors with infinite separation are: " +
+                        unreachable() + "\n");
             }
-            //repeat same process for inputs with two characters
-            else if(command.length==2){
 
-                if (command[0].equals( "c")) {
-                    System.out.println("\n" + avgSeperationList(Integer.parseInt(command[1])) + "\n");
+            //if the single input doesn't match any of the okay inputs return error
+            else{
+                out.println("\n" + rawScan + " is an invalid input.\n");
+            }
+        }
+        //repeat same process for inputs with two characters
+        else if(command.length==2){
+
+            if (command[0].equals( "c")) {
+                out.println("\n" + avgSeperationList(Integer.parseInt(command[1])) + "\n");
+            }
+            else if (command[0].equals( "t")) {
+                out.println("\n" + mostConnected(Integer.parseInt(command[1])) + "\n");
+            }
+            else if (command[0].equals( "p")) {
+                String actor = resolveActor(command[1]);
+                if(actor == null) {
+                    out.println();
+                }
+                else if(actor.equals(cou)) {
+                    out.println("\n" + actor + " is the center of the universe\n");
                 }
-                else if (command[0].equals( "p")) {
-                    if(isValidActor(command[1])) {
-                        List<String> path = GraphLib.getPath(bfs, command[1]);
-                        System.out.println("\n"+ command[1] + "is" +(path.size()-1) +
-                                " step(s) to get from " + command[1] + ":");
-                        for (int i = 0; i < path.size() - 1; i++) {
-                            System.out.println("\t" + path.get(i) + " was in " +
-                                    graph.actorMovieGraph.getLabel(path.get(i), path.get(i + 1)) + " with " + path.get(i + 1));
-                        }
-                        System.out.println("\n");
+                else {
+                    List<String> path = pathToCenter(actor);
+                    if(path == null) {
+                        out.println("\n" + actor + " has infinite separation from " + cou + "\n");
                     }
+                    else {
+                        out.println("\n"+ actor + "is" +(path.size()-1) +
+                                " step(s) to get from " + actor + ":");
+                        printPath(path);
+                    }
+                }
+
+            }
+            else if (command[0].equals( "u")) {
 
+                String actor = resolveActor(command[1]);
+                if(actor != null) {
+                    cou = actor;
+                    bfs = trees.peek(cou);
+                    out.println("\nThe center of universe has been updated to: " + actor + "\n");
                 }
-                else if (command[0].equals( "u")) {
 
-                    if(isValidActor(command[1])) {
-                        cou = command[1];
-                        bfs = GraphLib.bfs(graph.actorMovieGraph, cou);
-                        System.out.println("\nThe center of universe has been updated to: " + command[1] + "\n");
-                    }
+            }
+            else{
+                out.println("\n" + rawScan + " is not a valid input.\n");
+            }
+        }
 
+        //repeat the same process for 3 inputted characters
+        else if(command.length==3){
+            if (command[0].equals( "c")) {
+                double epsilon = Double.parseDouble(command[2]);
+
+                //the error bound has to be a finite positive fraction of the diameter
+                if(!(epsilon > 0) || Double.isInfinite(epsilon)) {
+                    out.println("\n" + rawScan + " is not a valid input.\n");
                 }
-                else{
-                    System.out.println("\n" + rawScan + " is not a valid input.\n");
+                else {
+                    out.println("\n" + avgSeperationList(Integer.parseInt(command[1]), epsilon) + "\n");
                 }
             }
+            else if (command[0].equals( "d")) {
+                out.println("\n" + lowToHighDegree(Integer.parseInt(command[1]),Integer.parseInt(command[2]))+"\n");
+            }
+            else if (command[0].equals( "s")) {
+                out.println("\n actors sorted by non-infinite separation" +
+                                " from the current center, with separation between low and high. \n");
+                out.println("\n"+lowHighSortSeparation(Integer.parseInt(command[1]),Integer.parseInt(command[2]))+"\n");
+            }
+            else if (command[0].equals( "n")) {
+                int k = Integer.parseInt(command[2]);
 
-            //repeat the same process for 3 inputted characters
-            else if(command.length==3){
-                if (command[0].equals( "d")) {
-                    System.out.println("\n" + lowToHighDegree(Integer.parseInt(command[1]),Integer.parseInt(command[2]))+"\n");
+                //a negative step count would search the whole component, not a neighborhood
+                if(k < 0) {
+                    out.println("\n" + rawScan + " is not a valid input.\n");
+                }
+                else {
+                    int[] group = resolveGroup(command[1]);
+                    if(group != null) {
+                        out.println("\n actors within " + k + " step(s) of " + command[1] + ", nearest first: \n");
+                        out.println("\n" + nearGroup(group, k) + "\n");
+                    }
                 }
-                else if (command[0].equals( "s")) {
-                    System.out.println("\n actors sorted by non-infinite separation" +
-                                    " from the current center, with separation between low and high. \n");
-                    System.out.println("\n"+lowHighSortSeparation(Integer.parseInt(command[1]),Integer.parseInt(command[2]))+"\n");
-                }else{
-                    System.out.println("\n" + rawScan + " is not a valid input.\n");
+            }
+            else if (command[0].equals( "g")) {
+                int[] group = resolveGroup(command[1]);
+                String actor = resolveActor(command[2]);
+                if(group != null && actor != null) {
+                    List<String> path = pathToGroup(group, actor);
+                    if(path == null) {
+                        out.println("\n" + actor + " has infinite separation from " + command[1] + "\n");
+                    }
+                    else {
+                        out.println("\n" + actor + " is " + (path.size() - 1) + " step(s) from the nearest of "
+                                + command[1] + ":");
+                        printPath(path);
+                    }
                 }
+            }else{
+                out.println("\n" + rawScan + " is not a valid input.\n");
             }
+        }
 
-            //input matches none of the above cases then return error message
-            else{
-                System.out.println("\n" + rawScan + " is not a valid input.\n");
+        //delta files to add to the live graph, an empty name skips that file
+        else if(command.length==4 && command[0].equals("a")){
+            try {
+                int touched = update(command[1].isEmpty() ? null : command[1],
+                        command[2].isEmpty() ? null : command[2], command[3].isEmpty() ? null : command[3]);
+                out.println("\nDelta added, " + touched + " actor(s) gained co-stars.\n");
+            } catch (Exception e) {
+                out.println("\nCould not add delta: " + e.getMessage() + "\n");
             }
+        }
 
+        //input matches none of the above cases then return error message
+        else{
+            out.println("\n" + rawScan + " is not a valid input.\n");
         }
-        // Close the scanner
-        scanner.close();
+        return !q;
     }
 
     //main to run game
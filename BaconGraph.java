@@ -1,7 +1,13 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Bacon Graph constructs actors and movies graph from
@@ -17,6 +23,14 @@ public class BaconGraph {
     public Map<String, String> movieIDtoName;
     public Map<String, List<String>> movieActors;
     public Graph<String, Set<String>> actorMovieGraph;
+    public CSRGraph actorCSRGraph;
+
+    //two way name lookups, actor ids match actorCSRGraph's dense ids
+    public SymbolTable actorSymbols;
+    public SymbolTable movieSymbols;
+
+    //smallest slice of the movie-actor file worth parsing on its own thread
+    static final long MIN_SLICE = 64 << 10;
 
     //constructor takes in file names for actor files,
     //movie files, and movie actor files and creates all
@@ -26,72 +40,336 @@ public class BaconGraph {
         //all helpers throw exceptions so method needs to a try catch to catch any
         //exceptions thrown
         try {
+            long begin = BaconMetrics.ENABLED ? System.nanoTime() : 0;
             actorIDtoName = new HashMap<>();
             movieIDtoName = new HashMap<>();
             movieActors = new HashMap<>();
             actorMovieGraph = new AdjacencyMapGraph<>();
-            fileToMap(actorFile, actorIDtoName);
-            fileToMap(movieFile, movieIDtoName);
-            fileToMoveActorMap(movieActor, movieActors);
-            mapToGraph(movieActors, actorMovieGraph);
+
+            //the two name tables and the slices of the movie-actor file all parse at the same time
+            parseFiles(actorFile, movieFile, movieActor, actorIDtoName, movieIDtoName, movieActors);
+
+            //edges are built in parallel into the compact graph, then copied into the map graph
+            actorCSRGraph = new CSRGraph(actorIDtoName, movieIDtoName, movieActors);
+            long start = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+            csrToGraph(actorCSRGraph, actorMovieGraph);
+            if (BaconMetrics.ENABLED) {
+                BaconMetrics.phase("map graph edges", System.nanoTime() - start);
+                start = System.nanoTime();
+            }
+            indexNames();
+            if (BaconMetrics.ENABLED) {
+                BaconMetrics.phase("movie symbols", System.nanoTime() - start);
+                BaconMetrics.phase("text load total", System.nanoTime() - begin);
+                BaconMetrics.graph(actorCSRGraph);
+            }
 
         } catch (Exception e) {
             throw new Exception(e);
         }
     }
 
-    //helper method for constructor that takes in a file name and fills a map
-    //with file contents
-    public void fileToMap (String fileName, Map<String, String> map) throws Exception {
+    //constructor for an empty graph whose maps and graphs are filled in by a loader
+    BaconGraph() {
+        actorIDtoName = new HashMap<>();
+        movieIDtoName = new HashMap<>();
+        movieActors = new HashMap<>();
+    }
 
-        //read file
-        BufferedReader input = new BufferedReader(new FileReader(fileName));
-        String line;
-        try {
-            //go line by line in file while there are still lines in a file
-            //process each line and fill the map
-            while ((line = input.readLine()) != null){
-                String[] lineList = line.split("\\|");
-                String id = lineList[0];
-                String name = lineList[1];
-                map.put(id, name);
+    //sets up the actor and movie symbol tables once the maps and compact graph are filled.
+    //final, like csrToGraph, since the constructor calls it
+    final void indexNames() {
+        actorSymbols = actorCSRGraph.actors;
+        movieSymbols = new SymbolTable(movieIDtoName.values());
+    }
+
+    //adds actors, movies and movie-actor records to the live graph without rebuilding it. ids
+    //the graph already knows keep their names and records already in a cast are skipped, so
+    //applying the same delta twice changes nothing. the map graph gains its new edges in place
+    //while the compact graph and symbol tables are replaced by extended copies, so readers
+    //holding the old ones are not disturbed. returns the compact graph ids of every actor who
+    //gained co-stars, which is what PathTreeCache.repair needs
+    public synchronized int[] update(Map<String, String> actors, Map<String, String> movies,
+                                     Map<String, List<String>> casts) {
+        long begin = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+
+        //names for ids not seen before
+        Set<String> named = new HashSet<>();
+        for (Map.Entry<String, String> actor : actors.entrySet()) {
+            if (!actorIDtoName.containsKey(actor.getKey())) {
+                actorIDtoName.put(actor.getKey(), actor.getValue());
+                named.add(actor.getKey());
             }
         }
-        //throw an exeption if one is caught by reading inputed file
-        catch (Exception e) {
-            throw new Exception(e);
+        List<String> newMovieNames = new ArrayList<>();
+        for (Map.Entry<String, String> movie : movies.entrySet()) {
+            if (!movieIDtoName.containsKey(movie.getKey())) {
+                movieIDtoName.put(movie.getKey(), movie.getValue());
+                newMovieNames.add(movie.getValue());
+            }
+        }
+
+        //append each record that is not already in its cast
+        Map<String, List<String>> added = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> cast : casts.entrySet()) {
+            List<String> current = movieActors.computeIfAbsent(cast.getKey(), movieID -> new ArrayList<>());
+            for (String actorID : cast.getValue()) {
+                if (!current.contains(actorID)) {
+                    current.add(actorID);
+                    added.computeIfAbsent(cast.getKey(), movieID -> new ArrayList<>()).add(actorID);
+                }
+            }
         }
 
-        //close buffered reader
-        input.close();
+        //actors who were in casts before they had a name only get their edges now
+        if (!named.isEmpty()) {
+            for (Map.Entry<String, List<String>> cast : movieActors.entrySet()) {
+                for (String actorID : cast.getValue()) {
+                    List<String> joined = added.get(cast.getKey());
+                    if (named.contains(actorID) && (joined == null || !joined.contains(actorID))) {
+                        added.computeIfAbsent(cast.getKey(), movieID -> new ArrayList<>()).add(actorID);
+                    }
+                }
+            }
+        }
+
+        //extend the compact graph, and the map graph too unless it is the compact graph itself
+        CSRGraph grown = actorCSRGraph.extend(actorIDtoName, movieIDtoName, movieActors, added);
+        if (actorMovieGraph == actorCSRGraph) {
+            actorMovieGraph = grown;
+        }
+        else {
+            for (String actorID : named) {
+                String name = actorIDtoName.get(actorID);
+                if (!actorMovieGraph.hasVertex(name)) {
+                    actorMovieGraph.insertVertex(name);
+                }
+            }
+            //labels are read back from the extended compact graph, which already merged the new
+            //movies in, so a pair of two new cast members visited from both ends is harmless
+            for (Map.Entry<String, List<String>> joined : added.entrySet()) {
+                for (String newActorID : joined.getValue()) {
+                    String actor1 = actorIDtoName.get(newActorID);
+                    for (String actorID : movieActors.get(joined.getKey())) {
+                        String actor2 = actorIDtoName.get(actorID);
+                        if (actor1 == null || actor2 == null || actorID.equals(newActorID)) {
+                            continue;
+                        }
+                        actorMovieGraph.insertUndirected(actor1, actor2, grown.getLabel(actor1, actor2));
+                    }
+                }
+            }
+        }
+
+        //swap in the new compact graph and name tables
+        SymbolTable grownMovies = new SymbolTable(movieSymbols);
+        for (String name : newMovieNames) {
+            grownMovies.add(name);
+        }
+        actorCSRGraph = grown;
+        actorSymbols = grown.actors;
+        movieSymbols = grownMovies;
+
+        Set<Integer> touched = new TreeSet<>();
+        for (List<String> joined : added.values()) {
+            for (String actorID : joined) {
+                int id = grown.indexOf(actorIDtoName.get(actorID));
+                if (id >= 0) {
+                    touched.add(id);
+                }
+            }
+        }
+        int[] ids = new int[touched.size()];
+        int i = 0;
+        for (int id : touched) {
+            ids[i++] = id;
+        }
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.phase("delta update", System.nanoTime() - begin);
+            BaconMetrics.graph(grown);
+        }
+        return ids;
+    }
+
+    //reads a delta in the same three formats as the full files and applies it with update.
+    //any of the files may be null when the delta has nothing of that kind
+    public int[] update(String actorFile, String movieFile, String movieActorFile) throws Exception {
+        Map<String, String> actors = new HashMap<>();
+        Map<String, String> movies = new HashMap<>();
+        Map<String, List<String>> casts = new LinkedHashMap<>();
+        if (actorFile != null) {
+            fileToMap(actorFile, actors);
+        }
+        if (movieFile != null) {
+            fileToMap(movieFile, movies);
+        }
+        if (movieActorFile != null) {
+            fileToMoveActorMap(movieActorFile, casts);
+        }
+        return update(actors, movies, casts);
+    }
+
+    //loads the graph from a binary snapshot if one matches the text files, otherwise
+    //parses the text files and writes a fresh snapshot for the next start
+    public static BaconGraph load(String actorFile, String movieFile, String movieActor, String snapshotFile) throws Exception {
+        BaconGraph graph = GraphSnapshot.load(snapshotFile, actorFile, movieFile, movieActor);
+        if (graph != null) {
+            return graph;
+        }
+        graph = new BaconGraph(actorFile, movieFile, movieActor);
+        try {
+            GraphSnapshot.write(graph, snapshotFile, actorFile, movieFile, movieActor);
+        }
+        //a snapshot is only a start up shortcut, so failing to write one is not fatal
+        catch (IOException e) {
+            System.err.println("could not write snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+        return graph;
+    }
+
+    //parses the two name tables and the slices of the movie-actor file at the same time into
+    //the given maps. static so no task sees the graph before its constructor finishes
+    private static void parseFiles(String actorFile, String movieFile, String movieActor,
+                                   Map<String, String> actorIDtoName, Map<String, String> movieIDtoName,
+                                   Map<String, List<String>> movieActors) throws Exception {
+        int workers = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 2);
+        try {
+            Future<?> actors = pool.submit(() -> {
+                long start = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+                readNames(actorFile, actorIDtoName);
+                if (BaconMetrics.ENABLED) {
+                    BaconMetrics.phase("parse actors", System.nanoTime() - start);
+                }
+                return null;
+            });
+            Future<?> movies = pool.submit(() -> {
+                long start = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+                readNames(movieFile, movieIDtoName);
+                if (BaconMetrics.ENABLED) {
+                    BaconMetrics.phase("parse movies", System.nanoTime() - start);
+                }
+                return null;
+            });
+            long start = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+            readCasts(movieActor, movieActors, pool, workers);
+            if (BaconMetrics.ENABLED) {
+                BaconMetrics.phase("parse movie-actors", System.nanoTime() - start);
+            }
+            await(actors);
+            await(movies);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //helper method for constructor that takes in a file name and fills a map
+    //with file contents
+    public void fileToMap (String fileName, Map<String, String> map) throws Exception {
+        readNames(fileName, map);
+    }
+
+    //fills a map of ids to names from a pipe separated file
+    private static void readNames(String fileName, Map<String, String> map) throws Exception {
+
+        //scan the file's bytes record by record, only the id and name Strings are built
+        PipeFileParser.parse(fileName, (line, bytes, idStart, idEnd, nameStart, nameEnd) ->
+                map.put(PipeFileParser.string(bytes, idStart, idEnd), PipeFileParser.string(bytes, nameStart, nameEnd)));
     }
 
     //helper method to fill a movie-actor map, has more precautions when a construction map
     public void fileToMoveActorMap(String fileName, Map<String, List<String>> map) throws Exception{
+        PipeFileParser.parse(fileName, movieActorHandler(map));
+    }
 
-        //open buffered reader on an inputed file
-        BufferedReader input = new BufferedReader(new FileReader(fileName));
-        String line;
-        try {
-            //read every line while line is not null
-            //process every line
-            while((line = input.readLine()) != null){
-                String[] lineList = line.split("\\|");
-                String movieID = lineList[0];
-                String actorID = lineList[1];
-                if(!map.containsKey(movieID)){
-                    map.put(movieID, new ArrayList<>());
+    //fills a movie-actor map by splitting the file into slices at line starts and parsing the
+    //slices on the pool, then appending them in file order so every cast keeps its file order
+    public void fileToMoveActorMap(String fileName, Map<String, List<String>> map, ExecutorService pool,
+                                   int slices) throws Exception {
+        readCasts(fileName, map, pool, slices);
+    }
+
+    //parallel movie-actor parse behind fileToMoveActorMap
+    private static void readCasts(String fileName, Map<String, List<String>> map, ExecutorService pool,
+                                  int slices) throws Exception {
+        List<Future<Map<String, List<String>>>> parts = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            slices = (int) Math.max(1, Math.min(slices, size / MIN_SLICE));
+            long from = 0;
+            for (int i = 1; i <= slices; i++) {
+                long to = i == slices ? size : nextLineStart(channel, Math.max(from, size * i / slices));
+                long start = from;
+                parts.add(pool.submit(() -> {
+                    Map<String, List<String>> part = new LinkedHashMap<>();
+                    PipeFileParser.parse(fileName, channel, start, to, 1, movieActorHandler(part));
+                    return part;
+                }));
+                from = to;
+            }
+
+            for (Future<Map<String, List<String>>> part : parts) {
+                Map<String, List<String>> slice;
+                try {
+                    slice = part.get();
+                }
+                //slices only know their own line numbers, so parse the file again in one
+                //pass to report the bad line against the whole file
+                catch (ExecutionException e) {
+                    PipeFileParser.parse(fileName, movieActorHandler(new HashMap<>()));
+                    throw e;
+                }
+                for (Map.Entry<String, List<String>> cast : slice.entrySet()) {
+                    map.computeIfAbsent(cast.getKey(), movieID -> new ArrayList<>()).addAll(cast.getValue());
                 }
-                map.get(movieID).add(actorID);
             }
         }
-        //throw an exeption if one is caught by reading inputed file
-        catch (Exception e) {
-            throw new Exception(e);
+    }
+
+    //position just past the first line break at or after position, or the end of the file
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
         }
+        return size;
+    }
 
-        //close buffered reader
-        input.close();
+    //waits for a load task and rethrows what it failed with
+    private static void await(Future<?> task) throws Exception {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    //handler that appends each movie-actor record to the movie's cast list
+    private static PipeFileParser.RecordHandler movieActorHandler(Map<String, List<String>> map) {
+
+        //records of one movie are usually next to each other, so the last movie's id
+        //String and cast list are reused while the id bytes stay the same
+        return new PipeFileParser.RecordHandler() {
+            String lastMovieID;
+            List<String> lastCast;
+
+            @Override
+            public void record(long line, ByteBuffer bytes, int movieStart, int movieEnd, int actorStart, int actorEnd) {
+                if (!PipeFileParser.matches(bytes, movieStart, movieEnd, lastMovieID)) {
+                    lastMovieID = PipeFileParser.string(bytes, movieStart, movieEnd);
+                    lastCast = map.computeIfAbsent(lastMovieID, movieID -> new ArrayList<>());
+                }
+                lastCast.add(PipeFileParser.string(bytes, actorStart, actorEnd));
+            }
+        };
     }
 
     //helper method that takes in a map of movies and its actors and creates a graph will all connections
@@ -102,19 +380,44 @@ public class BaconGraph {
             graph.insertVertex(actorIDtoName.get(actorID));
         }
 
-        //for every movie loop over all its actors and connect them to each other
-        //creating an edge (set) if its first connection between the two.
+        //labels are movie ids into one table of names, numbered in the order the movies come
+        String[] movieNames = new String[movieActorsMap.size()];
+        MovieLabelSet.Table labels = new MovieLabelSet.Table(movieNames);
+
+        //for every movie loop over all its actors and connect them to each other,
+        //storing the edge's label with this movie added (a shared label if it is the first)
+        int movie = 0;
         for(String movieID: movieActorsMap.keySet()){
-            String movieName = movieIDtoName.get(movieID);
+            movieNames[movie] = movieIDtoName.get(movieID);
             List<String> listOfActor = movieActorsMap.get(movieID);
             for(int i = 0; i < listOfActor.size(); i ++){
                 for(int j = i + 1; j < listOfActor.size(); j++){
                     String actor1 = actorIDtoName.get(listOfActor.get(i));
                     String actor2 = actorIDtoName.get(listOfActor.get(j));
-                    if(!graph.hasEdge(actor2, actor1)){
-                        graph.insertUndirected(actor1, actor2, new HashSet<String>());
-                    }
-                    graph.getLabel(actor1,actor2).add(movieName);
+                    MovieLabelSet label = (MovieLabelSet) graph.getLabel(actor1, actor2);
+                    graph.insertUndirected(actor1, actor2, labels.with(label, movie));
+                }
+            }
+            movie++;
+        }
+    }
+
+    //fills a map graph from a compact graph, one label per pair of co-stars holding the
+    //movies they share over the compact graph's movie table. gives the same graph mapToGraph
+    //builds from the same maps
+    public final void csrToGraph(CSRGraph csr, Graph<String, Set<String>> graph){
+
+        //add every actor in file to graph as a vertex
+        for(String actorID: actorIDtoName.keySet()){
+            graph.insertVertex(actorIDtoName.get(actorID));
+        }
+
+        //insert each undirected edge once, from its lower id end
+        for(int v = 0; v < csr.numVertices(); v++){
+            for(int e = csr.offsets[v]; e < csr.offsets[v + 1]; e++){
+                int u = csr.neighbors[e];
+                if(u >= v){
+                    graph.insertUndirected(csr.actorNames[v], csr.actorNames[u], csr.label(e));
                 }
             }
         }
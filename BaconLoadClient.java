@@ -0,0 +1,136 @@
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator for BaconServer. Opens a number of concurrent sessions that
+ * each send a fixed mix of path, center, separation, degree and infinite
+ * separation queries, timing every answer from the moment its command is
+ * sent until its closing period arrives. Prints throughput and the p50, p90,
+ * p99 and worst latencies once every session is done.
+ *
+ * usage: BaconLoadClient [host] [port] [sessions] [requests per session] [actors file]
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class BaconLoadClient {
+
+    //requests per session sent before timing starts, so the server's JIT has warmed up
+    static final int WARMUP = 50;
+
+    //actor names the queries pick from
+    private final List<String> actors;
+
+    private final String host;
+    private final int port;
+
+    //constructor sets the server to load and the names to ask about
+    public BaconLoadClient(String host, int port, List<String> actors) {
+        this.host = host;
+        this.port = port;
+        this.actors = actors;
+    }
+
+    //the next command of a session, mostly path queries with the rest mixed in
+    private String nextCommand(Random random) {
+        int pick = random.nextInt(100);
+        String actor = actors.get(random.nextInt(actors.size()));
+        if (pick < 70) {
+            return "p:" + actor;
+        }
+        if (pick < 80) {
+            return random.nextInt(4) == 0 ? "u:" + actor : "u:Kevin Bacon";
+        }
+        if (pick < 90) {
+            return "s:" + (1 + random.nextInt(3)) + ":" + (3 + random.nextInt(3));
+        }
+        if (pick < 97) {
+            return "d:" + (1 + random.nextInt(50)) + ":" + (50 + random.nextInt(50));
+        }
+        return "i";
+    }
+
+    //one session: sends requests one at a time and returns the latency of each timed one in nanoseconds
+    private long[] session(int requests, long seed) throws IOException {
+        Random random = new Random(seed);
+        long[] latencies = new long[requests];
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            for (int i = -WARMUP; i < requests; i++) {
+                long begin = System.nanoTime();
+                out.println(nextCommand(random));
+                out.flush();
+                String line;
+                while ((line = in.readLine()) != null && !line.equals(BaconServer.END)) {
+                    //the answer itself is not checked, only how long it took
+                }
+                if (line == null) {
+                    throw new EOFException("server closed the session");
+                }
+                if (i >= 0) {
+                    latencies[i] = System.nanoTime() - begin;
+                }
+            }
+            out.println("q");
+            out.flush();
+        }
+        return latencies;
+    }
+
+    //runs the sessions concurrently and prints the latency percentiles over every timed request
+    public void run(int sessions, int requests) throws Exception {
+        List<Future<long[]>> results = new ArrayList<>();
+        long begin;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            begin = System.nanoTime();
+            for (int s = 0; s < sessions; s++) {
+                long seed = s;
+                results.add(pool.submit(() -> session(requests, seed)));
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        long[] all = new long[sessions * requests];
+        int k = 0;
+        for (Future<long[]> result : results) {
+            for (long latency : result.get()) {
+                all[k++] = latency;
+            }
+        }
+        Arrays.sort(all);
+        System.out.printf("%d sessions x %d requests: %.0f requests/s (warmup included in wall time)%n",
+                sessions, requests, sessions * (requests + WARMUP) / seconds);
+        System.out.printf("p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n", percentile(all, 0.50),
+                percentile(all, 0.90), percentile(all, 0.99), all[all.length - 1] / 1e6);
+    }
+
+    //latency at a fraction of the sorted latencies, in milliseconds
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    //actor names from an id|name file
+    private static List<String> readActors(String fileName) throws IOException {
+        List<String> names = new ArrayList<>();
+        PipeFileParser.parse(fileName, (line, bytes, idStart, idEnd, nameStart, nameEnd) ->
+                names.add(PipeFileParser.string(bytes, nameStart, nameEnd)));
+        return names;
+    }
+
+    //main loads a running server with the given number of sessions
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : BaconServer.DEFAULT_PORT;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        String actorFile = args.length > 4 ? args[4] : "PS4/actors.txt";
+        new BaconLoadClient(host, port, readActors(actorFile)).run(sessions, requests);
+    }
+}
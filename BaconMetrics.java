@@ -0,0 +1,263 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Counters and timings for loading and querying, off unless the JVM is
+ * started with -Dbacon.metrics=true. Every call site checks ENABLED first,
+ * and since it is a static final constant the JIT drops the checks and
+ * everything behind them when metrics are off.
+ *
+ * When on, records the last duration of each load phase, a latency
+ * histogram per game command, how many vertices and edges every bfs
+ * touched, tree cache hits and misses, and the footprint of the current
+ * graph. All of it is published as the MBean bacon:type=Metrics, and with
+ * -Dbacon.metrics.dump=<seconds> also printed to standard error that often.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class BaconMetrics implements BaconMetricsMBean {
+
+    //true when the JVM was started with -Dbacon.metrics=true
+    public static final boolean ENABLED = Boolean.getBoolean("bacon.metrics");
+
+    //the one instance, registered with the platform MBean server when metrics are on
+    public static final BaconMetrics METRICS = new BaconMetrics();
+
+    //last duration of each load phase in nanoseconds, in the order the phases first ran
+    private final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    //latency histogram per command
+    private final Map<String, Histogram> commands = new ConcurrentHashMap<>();
+
+    private final LongAdder bfsRuns = new LongAdder();
+    private final LongAdder bfsVertices = new LongAdder();
+    private final LongAdder bfsEdges = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    //graph whose footprint is reported, the last one loaded or extended
+    private volatile CSRGraph graph;
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(METRICS, new ObjectName("bacon:type=Metrics"));
+            } catch (Exception e) {
+                System.err.println("could not register metrics MBean: " + e);
+            }
+            long period = Long.getLong("bacon.metrics.dump", 0);
+            if (period > 0) {
+                METRICS.startDump(period, System.err);
+            }
+        }
+    }
+
+    /**
+     * Latency histogram with one bucket per power of two nanoseconds, so
+     * recording is one atomic add and percentiles are accurate to within a
+     * factor of two.
+     */
+    public static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+
+        //adds one duration
+        public void record(long nanos) {
+            nanos = Math.max(nanos, 1);
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos));
+            count.increment();
+            total.add(nanos);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        //mean in nanoseconds, NaN when empty
+        public double mean() {
+            return (double) total.sum() / count.sum();
+        }
+
+        //upper edge of the bucket holding the given fraction of durations, in nanoseconds
+        public long percentile(double fraction) {
+            long target = (long) Math.ceil(fraction * count.sum());
+            long seen = 0;
+            for (int b = 0; b < 64; b++) {
+                seen += buckets.get(b);
+                if (seen >= target && seen > 0) {
+                    return b == 63 ? Long.MAX_VALUE : (1L << (b + 1)) - 1;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.3fms p50<%.3fms p99<%.3fms", count(), mean() / 1e6,
+                    percentile(0.5) / 1e6, percentile(0.99) / 1e6);
+        }
+    }
+
+    //records how long a load phase took
+    public static void phase(String name, long nanos) {
+        METRICS.phases.put(name, nanos);
+    }
+
+    //records one command's latency under its command letter
+    public static void command(String name, long nanos) {
+        METRICS.commands.computeIfAbsent(name, key -> new Histogram()).record(nanos);
+    }
+
+    //records one bfs and how much of the graph it touched
+    public static void bfs(long vertices, long edges) {
+        METRICS.bfsRuns.increment();
+        METRICS.bfsVertices.add(vertices);
+        METRICS.bfsEdges.add(edges);
+    }
+
+    //records one bfs over a compact graph that expanded queue[0..expanded), every edge
+    //of an expanded actor scanned once. only called when metrics are on, so summing
+    //the degrees costs nothing otherwise
+    public static void bfs(CSRGraph graph, int[] queue, int reached, int expanded) {
+        long edges = 0;
+        for (int i = 0; i < expanded; i++) {
+            edges += graph.degree(queue[i]);
+        }
+        bfs(reached, edges);
+    }
+
+    public static void cacheHit() {
+        METRICS.cacheHits.increment();
+    }
+
+    public static void cacheMiss() {
+        METRICS.cacheMisses.increment();
+    }
+
+    //makes graph the one whose footprint is reported
+    public static void graph(CSRGraph graph) {
+        METRICS.graph = graph;
+    }
+
+    //prints dump() to out every period seconds on a daemon thread
+    public void startDump(long periodSeconds, PrintStream out) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "bacon-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> out.println(dump()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String getLoadTimings() {
+        StringBuilder text = new StringBuilder();
+        synchronized (phases) {
+            for (Map.Entry<String, Long> phase : phases.entrySet()) {
+                text.append(String.format("%s %.1f ms%n", phase.getKey(), phase.getValue() / 1e6));
+            }
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String getCommandLatencies() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Histogram> command : new ConcurrentSkipListMap<>(commands).entrySet()) {
+            text.append(command.getKey()).append(' ').append(command.getValue()).append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    @Override
+    public long getBfsRuns() {
+        return bfsRuns.sum();
+    }
+
+    @Override
+    public long getBfsVerticesVisited() {
+        return bfsVertices.sum();
+    }
+
+    @Override
+    public long getBfsEdgesScanned() {
+        return bfsEdges.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hits = cacheHits.sum();
+        return (double) hits / (hits + cacheMisses.sum());
+    }
+
+    @Override
+    public long getGraphBytes() {
+        CSRGraph current = graph;
+        return current == null ? 0 : current.footprint();
+    }
+
+    @Override
+    public long getHeapUsedBytes() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public String dump() {
+        return "-- bacon metrics --" + System.lineSeparator()
+                + getLoadTimings()
+                + getCommandLatencies()
+                + String.format("bfs runs=%d vertices=%d edges=%d%n", getBfsRuns(), getBfsVerticesVisited(),
+                getBfsEdgesScanned())
+                + String.format("tree cache hits=%d misses=%d rate=%.3f%n", getCacheHits(), getCacheMisses(),
+                getCacheHitRate())
+                + String.format("graph %,d bytes, heap %,d bytes used", getGraphBytes(), getHeapUsedBytes());
+    }
+
+    @Override
+    public void reset() {
+        phases.clear();
+        commands.clear();
+        bfsRuns.reset();
+        bfsVertices.reset();
+        bfsEdges.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    //main plays a few commands with metrics on and prints what was recorded
+    public static void main(String[] args) throws Exception {
+        if (!ENABLED) {
+            System.out.println("run with -Dbacon.metrics=true to record metrics");
+            return;
+        }
+        BaconGame game = new BaconGame(new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt"));
+        for (String command : new String[]{"c:5", "u:Tom Hanks", "s:0:1", "p:Kevin Bacon", "u:Kevin Bacon",
+                "s:0:1", "u:Tom Hanks", "s:0:1", "p:Kevin Bacon", "t:5", "hello", "x:1", ":", "::"}) {
+            game.runCommand(command);
+        }
+        System.out.println(METRICS.dump());
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Management interface of BaconMetrics, what jconsole or any other JMX
+ * client sees under bacon:type=Metrics.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public interface BaconMetricsMBean {
+
+    //last duration of every load phase, one "phase ms" pair per line
+    String getLoadTimings();
+
+    //count, mean and percentiles of every game command, one command per line
+    String getCommandLatencies();
+
+    long getBfsRuns();
+
+    long getBfsVerticesVisited();
+
+    long getBfsEdgesScanned();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    //hits over lookups, NaN before the first lookup
+    double getCacheHitRate();
+
+    //bytes held by the arrays of the current compact graph
+    long getGraphBytes();
+
+    //heap in use across the whole process
+    long getHeapUsedBytes();
+
+    //every metric as the same text the periodic dump prints
+    String dump();
+
+    //zeroes every counter and histogram
+    void reset();
+}
@@ -0,0 +1,108 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the Bacon Game over a local socket so many players can query one
+ * loaded graph at once. Every connection is a session with its own center
+ * of the universe, running on its own virtual thread, while the graph, the
+ * separation engine and the tree cache are shared by all sessions.
+ *
+ * The protocol is line based and uses the game's own commands, one per line
+ * (c:#, d:low:high, i, p:name, s:low:high, u:name, q). Each answer is the
+ * text the game would print, followed by a line holding a single period.
+ * q ends the session. Delta files cannot be added through the server, so the
+ * graph every session reads never changes under it.
+ *
+ * usage: BaconServer [port]
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class BaconServer {
+
+    //port used when none is given
+    public static final int DEFAULT_PORT = 4444;
+
+    //line that ends every answer
+    public static final String END = ".";
+
+    //shared by every session
+    private final BaconGraph graph;
+    private final SeparationEngine separation;
+    private final PathTreeCache trees;
+
+    //constructor shares one graph, engine and tree cache between all sessions. sessions only
+    //read through the compact graph, which nothing mutates
+    public BaconServer(BaconGraph graph, int cachedTrees) {
+        this.graph = graph;
+        graph.actorMovieGraph = graph.actorCSRGraph;
+        separation = new SeparationEngine(graph.actorCSRGraph);
+        trees = new PathTreeCache(graph.actorCSRGraph, cachedTrees);
+    }
+
+    //accepts connections on the loopback address until the server socket is closed,
+    //starting a virtual thread for every session
+    public void serve(ServerSocket server) throws IOException {
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!server.isClosed()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    if (server.isClosed()) {
+                        break;
+                    }
+                    throw e;
+                }
+                sessions.submit(() -> session(socket));
+            }
+        }
+    }
+
+    //runs one player's commands in order until they quit or hang up
+    private void session(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16), false,
+                     StandardCharsets.UTF_8)) {
+            BaconGame game = new BaconGame(graph, separation, trees, out);
+            String line;
+            boolean playing = true;
+            while (playing && (line = in.readLine()) != null) {
+                if (line.startsWith("a:")) {
+                    out.println("\nDelta files cannot be added through the server.\n");
+                }
+                else {
+                    try {
+                        playing = game.runCommand(line);
+                    }
+                    //a bad number or name ends the answer, not the session
+                    catch (RuntimeException e) {
+                        out.println("\n" + line + " failed: " + e + "\n");
+                    }
+                }
+                out.println(END);
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("session " + socket.getRemoteSocketAddress() + " ended: " + e.getMessage());
+        }
+    }
+
+    //main loads the graph and serves it on the loopback address
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        BaconGraph graph = BaconGraph.load("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt",
+                "PS4/bacon.snapshot");
+        BaconServer server = new BaconServer(graph, 64);
+        try (ServerSocket socket = new ServerSocket(port, 256, InetAddress.getLoopbackAddress())) {
+            System.out.println("serving the Bacon Game on " + socket.getLocalSocketAddress());
+            server.serve(socket);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+import java.util.*;
+
+/**
+ * Actor graph that keeps movies as intermediate nodes instead of connecting
+ * every pair of co-stars. Each actor stores the ids of its movies and each
+ * movie stores the ids of its cast, so an actor -> co-star hop is an
+ * actor -> movie -> actor walk done while traversing. Costs O(cast) per movie
+ * instead of O(cast^2), and still answers the Graph interface with co-stars as
+ * neighbors and shared movies as labels so GraphLib and BaconGame work unchanged.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class BipartiteGraph implements Graph<String, Set<String>> {
+
+    //actor names by dense id and the symbol table that maps them back to ids
+    public final String[] actorNames;
+    public final SymbolTable actors;
+
+    //movie names by dense id
+    public final String[] movieNames;
+
+    //labels handed out by getLabel, as movie ids into movieNames
+    public final MovieLabelSet.Table movieLabels;
+
+    //movies of actor a are actorMovies[actorOffsets[a]..actorOffsets[a+1]), sorted
+    public final int[] actorOffsets;
+    public final int[] actorMovies;
+
+    //cast of movie m is movieCast[movieOffsets[m]..movieOffsets[m+1])
+    public final int[] movieOffsets;
+    public final int[] movieCast;
+
+    //number of directed co-star edges, counted the first time it is asked for
+    private int numEdges = -1;
+
+    //constructor builds both sides of the bipartite graph from the same maps BaconGraph fills
+    public BipartiteGraph(Map<String, String> actorIDtoName, Map<String, String> movieIDtoName,
+                          Map<String, List<String>> movieActors) {
+
+        //give every distinct actor name a dense id
+        actors = new SymbolTable(actorIDtoName.values());
+        actorNames = new String[actors.size()];
+        for (int v = 0; v < actorNames.length; v++) {
+            actorNames[v] = actors.name(v);
+        }
+
+        //movie -> cast side, dropping repeated or unknown actors within a cast
+        movieNames = new String[movieActors.size()];
+        movieLabels = new MovieLabelSet.Table(movieNames);
+        movieOffsets = new int[movieActors.size() + 1];
+        int[] castBuffer = new int[16];
+        int size = 0;
+        int m = 0;
+        for (String movieID : movieActors.keySet()) {
+            movieNames[m] = movieIDtoName.get(movieID);
+            movieOffsets[m] = size;
+            for (String actorID : movieActors.get(movieID)) {
+                int id = actors.id(actorIDtoName.get(actorID));
+                if (id < 0 || contains(castBuffer, movieOffsets[m], size, id)) {
+                    continue;
+                }
+                if (size == castBuffer.length) {
+                    castBuffer = Arrays.copyOf(castBuffer, size * 2);
+                }
+                castBuffer[size++] = id;
+            }
+            m++;
+        }
+        movieOffsets[m] = size;
+        movieCast = Arrays.copyOf(castBuffer, size);
+
+        //actor -> movies side, filled in movie order so every slice comes out sorted
+        actorOffsets = new int[actorNames.length + 1];
+        for (int actor : movieCast) {
+            actorOffsets[actor + 1]++;
+        }
+        for (int a = 0; a < actorNames.length; a++) {
+            actorOffsets[a + 1] += actorOffsets[a];
+        }
+        actorMovies = new int[movieCast.length];
+        int[] fill = Arrays.copyOf(actorOffsets, actorNames.length);
+        for (int movie = 0; movie < movieNames.length; movie++) {
+            for (int i = movieOffsets[movie]; i < movieOffsets[movie + 1]; i++) {
+                actorMovies[fill[movieCast[i]]++] = movie;
+            }
+        }
+    }
+
+    //linear check used while building short cast lists
+    private static boolean contains(int[] array, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //dense id of an actor, or -1 if the actor is not in the graph
+    public int indexOf(String actor) {
+        return actors.id(actor);
+    }
+
+    //looks up an actor's id, failing the same way for every accessor
+    private int requireIndex(String actor) {
+        int id = indexOf(actor);
+        if (id < 0) {
+            throw new IllegalArgumentException(actor + " is not in the graph");
+        }
+        return id;
+    }
+
+    //sorted, distinct ids of everyone who shares a movie with actor a
+    public int[] coStars(int a) {
+        int count = 0;
+        for (int i = actorOffsets[a]; i < actorOffsets[a + 1]; i++) {
+            int movie = actorMovies[i];
+            count += movieOffsets[movie + 1] - movieOffsets[movie];
+        }
+        int[] ids = new int[count];
+        int size = 0;
+        for (int i = actorOffsets[a]; i < actorOffsets[a + 1]; i++) {
+            int movie = actorMovies[i];
+            for (int j = movieOffsets[movie]; j < movieOffsets[movie + 1]; j++) {
+                if (movieCast[j] != a) {
+                    ids[size++] = movieCast[j];
+                }
+            }
+        }
+        Arrays.sort(ids, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    //movie ids shared by actors a and b, merged from their sorted movie lists
+    public int[] sharedMovies(int a, int b) {
+        int i = actorOffsets[a];
+        int j = actorOffsets[b];
+        int[] shared = new int[Math.min(actorOffsets[a + 1] - i, actorOffsets[b + 1] - j)];
+        int size = 0;
+        while (i < actorOffsets[a + 1] && j < actorOffsets[b + 1]) {
+            if (actorMovies[i] < actorMovies[j]) {
+                i++;
+            }
+            else if (actorMovies[i] > actorMovies[j]) {
+                j++;
+            }
+            else {
+                shared[size++] = actorMovies[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(shared, size);
+    }
+
+    //bfs that hops actor -> movie -> actor and expands every movie only once.
+    //returns a shortest path tree shaped like GraphLib.bfs, edges point from
+    //child to parent and carry the movies the two share
+    public Graph<String, Set<String>> shortestPathTree(String source) {
+        AdjacencyMapGraph<String, Set<String>> tree = new AdjacencyMapGraph<>();
+        int root = requireIndex(source);
+        int[] parent = new int[actorNames.length];
+        Arrays.fill(parent, -1);
+        boolean[] movieSeen = new boolean[movieNames.length];
+        int[] queue = new int[actorNames.length];
+        int head = 0;
+        int tail = 0;
+
+        parent[root] = root;
+        queue[tail++] = root;
+        tree.insertVertex(source);
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = actorOffsets[u]; i < actorOffsets[u + 1]; i++) {
+                int movie = actorMovies[i];
+                if (movieSeen[movie]) {
+                    continue;
+                }
+                movieSeen[movie] = true;
+                for (int j = movieOffsets[movie]; j < movieOffsets[movie + 1]; j++) {
+                    int v = movieCast[j];
+                    if (parent[v] < 0) {
+                        parent[v] = u;
+                        queue[tail++] = v;
+                        tree.insertVertex(actorNames[v]);
+                        tree.insertDirected(actorNames[v], actorNames[u], getLabel(actorNames[u], actorNames[v]));
+                    }
+                }
+            }
+        }
+        return tree;
+    }
+
+    @Override
+    public int numVertices() {
+        return actorNames.length;
+    }
+
+    @Override
+    public int numEdges() {
+        if (numEdges < 0) {
+            int total = 0;
+            for (int a = 0; a < actorNames.length; a++) {
+                total += coStars(a).length;
+            }
+            numEdges = total;
+        }
+        return numEdges;
+    }
+
+    @Override
+    public Iterable<String> vertices() {
+        return Collections.unmodifiableList(Arrays.asList(actorNames));
+    }
+
+    @Override
+    public boolean hasVertex(String v) {
+        return actors.id(v) >= 0;
+    }
+
+    @Override
+    public int outDegree(String v) {
+        return coStars(requireIndex(v)).length;
+    }
+
+    //the graph is undirected so in and out degree agree
+    @Override
+    public int inDegree(String v) {
+        return outDegree(v);
+    }
+
+    @Override
+    public Iterable<String> outNeighbors(String v) {
+        int[] ids = coStars(requireIndex(v));
+        List<String> coStars = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            coStars.add(actorNames[id]);
+        }
+        return coStars;
+    }
+
+    @Override
+    public Iterable<String> inNeighbors(String v) {
+        return outNeighbors(v);
+    }
+
+    @Override
+    public boolean hasEdge(String u, String v) {
+        int a = indexOf(u);
+        int b = indexOf(v);
+        return a >= 0 && b >= 0 && a != b && sharedMovies(a, b).length > 0;
+    }
+
+    //the movies shared by two actors as a label over movieNames, null if they share none
+    @Override
+    public Set<String> getLabel(String u, String v) {
+        if (!hasEdge(u, v)) {
+            return null;
+        }
+        int[] shared = sharedMovies(indexOf(u), indexOf(v));
+        return movieLabels.of(shared, 0, shared.length);
+    }
+
+    @Override
+    public void insertVertex(String v) {
+        throw new UnsupportedOperationException("BipartiteGraph is read-only");
+    }
+
+    @Override
+    public void insertDirected(String u, String v, Set<String> e) {
+        throw new UnsupportedOperationException("BipartiteGraph is read-only");
+    }
+
+    @Override
+    public void insertUndirected(String u, String v, Set<String> e) {
+        throw new UnsupportedOperationException("BipartiteGraph is read-only");
+    }
+
+    @Override
+    public void removeVertex(String v) {
+        throw new UnsupportedOperationException("BipartiteGraph is read-only");
+    }
+
+    @Override
+    public void removeDirected(String u, String v) {
+        throw new UnsupportedOperationException("BipartiteGraph is read-only");
+    }
+
+    @Override
+    public void removeUndirected(String u, String v) {
+        throw new UnsupportedOperationException("BipartiteGraph is read-only");
+    }
+
+    @Override
+    public String toString() {
+        return "BipartiteGraph: " + actorNames.length + " actors, " + movieNames.length + " movies, "
+                + movieCast.length + " credits";
+    }
+
+    //heap in use after asking the collector to settle
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    //main compares load time, heap and answers against the pairwise map graph
+    public static void main(String[] args) throws Exception {
+        BaconGraph graph = new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt");
+        String center = "Kevin Bacon";
+
+        //rebuild each model from the shared maps so only the graph itself is measured
+        graph.actorMovieGraph = null;
+        long beforeMap = usedHeap();
+        long begin = System.nanoTime();
+        Graph<String, Set<String>> mapGraph = new AdjacencyMapGraph<>();
+        graph.mapToGraph(graph.movieActors, mapGraph);
+        double mapLoad = (System.nanoTime() - begin) / 1e6;
+        long afterMap = usedHeap();
+        begin = System.nanoTime();
+        BipartiteGraph bipartite = new BipartiteGraph(graph.actorIDtoName, graph.movieIDtoName, graph.movieActors);
+        double bipartiteLoad = (System.nanoTime() - begin) / 1e6;
+        long afterBipartite = usedHeap();
+        System.out.println(bipartite);
+
+        //separation and path labels should agree with the pairwise graph
+        Graph<String, Set<String>> mapTree = GraphLib.bfs(mapGraph, center);
+        Graph<String, Set<String>> bipartiteTree = bipartite.shortestPathTree(center);
+        System.out.println("map tree: " + mapTree.numVertices() + " actors, average separation "
+                + GraphLib.averageSeparation(mapTree, center));
+        System.out.println("bipartite tree: " + bipartiteTree.numVertices() + " actors, average separation "
+                + GraphLib.averageSeparation(bipartiteTree, center));
+        int mismatches = 0;
+        for (String actor : mapTree.vertices()) {
+            List<String> mapPath = GraphLib.getPath(mapTree, actor);
+            List<String> bipartitePath = GraphLib.getPath(bipartiteTree, actor);
+            if (mapPath == null ? bipartitePath != null : mapPath.size() != bipartitePath.size()) {
+                mismatches++;
+                continue;
+            }
+            for (int i = 0; mapPath != null && i < bipartitePath.size() - 1; i++) {
+                String u = bipartitePath.get(i);
+                String v = bipartitePath.get(i + 1);
+                if (!bipartite.getLabel(u, v).equals(mapGraph.getLabel(u, v))) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println("path length or label mismatches: " + mismatches);
+
+        System.out.printf("pairwise map graph: %,d bytes, built in %.1f ms%n", afterMap - beforeMap, mapLoad);
+        System.out.printf("bipartite graph: %,d bytes, built in %.1f ms%n", afterBipartite - afterMap, bipartiteLoad);
+    }
+}
@@ -0,0 +1,616 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only actor graph stored in compressed sparse row form. Actor names are
+ * mapped to dense int ids, the neighbors of actor v live in
+ * neighbors[offsets[v]..offsets[v+1]) sorted by id, and the movies shared on
+ * edge e live in labelPool[labelOffsets[e]..labelOffsets[e+1]) as movie ids.
+ * Implements Graph so it can be handed to GraphLib in place of the map graph.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class CSRGraph implements Graph<String, Set<String>> {
+
+    //actor names by dense id and the symbol table that maps them back to ids
+    public final String[] actorNames;
+    public final SymbolTable actors;
+
+    //movie ids from the movie files and movie names by dense movie id, shared by every edge label
+    public final String[] movieIDs;
+    public final String[] movieNames;
+
+    //labels handed out by getLabel, as movie ids into movieNames
+    public final MovieLabelSet.Table movieLabels;
+
+    //adjacency in compressed sparse row form
+    public final int[] offsets;
+    public final int[] neighbors;
+
+    //movie ids for every edge, edge e owns labelPool[labelOffsets[e]..labelOffsets[e+1])
+    public final int[] labelOffsets;
+    public final int[] labelPool;
+
+    //connected components, found while the edges are built
+    public final ComponentIndex components;
+
+    //actors by degree, built the first time a degree query needs it
+    private volatile DegreeIndex degreeIndex;
+
+    //degree sum of every component, built the first time a search needs it
+    private volatile long[] componentEdges;
+
+    //constructor builds the compact graph from the same maps BaconGraph
+    //fills, connecting every pair of actors who share a movie. movies are
+    //split across workers that each write edges into their own regions
+    public CSRGraph(Map<String, String> actorIDtoName, Map<String, String> movieIDtoName,
+                    Map<String, List<String>> movieActors) {
+
+        //give every distinct actor name a dense id
+        long phaseStart = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+        actors = new SymbolTable(actorIDtoName.values());
+        actorNames = new String[actors.size()];
+        for (int v = 0; v < actorNames.length; v++) {
+            actorNames[v] = actors.name(v);
+        }
+        int n = actorNames.length;
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.phase("actor symbols", System.nanoTime() - phaseStart);
+            phaseStart = System.nanoTime();
+        }
+
+        //give every movie with a cast a dense id and turn its cast into actor ids
+        movieIDs = movieActors.keySet().toArray(new String[0]);
+        movieNames = new String[movieIDs.length];
+        movieLabels = new MovieLabelSet.Table(movieNames);
+        int[][] casts = new int[movieIDs.length][];
+        IntStream.range(0, movieIDs.length).parallel().forEach(movie -> {
+            movieNames[movie] = movieIDtoName.get(movieIDs[movie]);
+            List<String> cast = movieActors.get(movieIDs[movie]);
+            int[] ids = new int[cast.size()];
+            int k = 0;
+            for (String actorID : cast) {
+                int id = actors.id(actorIDtoName.get(actorID));
+                if (id >= 0) {
+                    ids[k++] = id;
+                }
+            }
+            casts[movie] = Arrays.copyOf(ids, k);
+        });
+
+        //everyone in a cast is connected, so joining each member to the first finds the components
+        int[] parent = ComponentIndex.singletons(n);
+        for (int[] cast : casts) {
+            for (int i = 1; i < cast.length; i++) {
+                ComponentIndex.union(parent, cast[0], cast[i]);
+            }
+        }
+        components = new ComponentIndex(parent);
+
+        //split the movies into one run per worker with about the same number of pairs each
+        int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), casts.length));
+        long totalPairs = 0;
+        for (int[] cast : casts) {
+            totalPairs += (long) cast.length * (cast.length - 1) / 2;
+        }
+        int[] runStart = new int[workers + 1];
+        long pairs = 0;
+        for (int movie = 0, run = 1; movie < casts.length && run < workers; movie++) {
+            pairs += (long) casts[movie].length * (casts[movie].length - 1) / 2;
+            if (pairs * workers >= totalPairs * run) {
+                runStart[run++] = movie + 1;
+            }
+        }
+        for (int run = 1; run <= workers; run++) {
+            runStart[run] = Math.max(runStart[run], run == workers ? casts.length : runStart[run - 1]);
+        }
+
+        //every worker counts how many (co-star, movie) entries each actor gets from its run
+        int[][] counts = new int[workers][];
+        IntStream.range(0, workers).parallel().forEach(run -> {
+            int[] count = new int[n];
+            for (int movie = runStart[run]; movie < runStart[run + 1]; movie++) {
+                int[] cast = casts[movie];
+                for (int i = 0; i < cast.length; i++) {
+                    count[cast[i]] += cast.length - 1;
+                }
+            }
+            counts[run] = count;
+        });
+
+        //lay actor slices out one after another, and inside each slice give every
+        //worker its own region so the scatter below needs no locking
+        int[] start = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            int position = start[v];
+            for (int run = 0; run < workers; run++) {
+                int count = counts[run][v];
+                counts[run][v] = position;
+                position += count;
+            }
+            start[v + 1] = position;
+        }
+
+        //scatter every entry into its actor's slice packed as (co-star << 32 | movie)
+        long[] entries = new long[start[n]];
+        IntStream.range(0, workers).parallel().forEach(run -> {
+            int[] fill = counts[run];
+            for (int movie = runStart[run]; movie < runStart[run + 1]; movie++) {
+                int[] cast = casts[movie];
+                for (int i = 0; i < cast.length; i++) {
+                    for (int j = i + 1; j < cast.length; j++) {
+                        entries[fill[cast[i]]++] = ((long) cast[j] << 32) | movie;
+                        entries[fill[cast[j]]++] = ((long) cast[i] << 32) | movie;
+                    }
+                }
+            }
+        });
+
+        //sort every slice so co-stars are grouped, and count the distinct
+        //co-stars and distinct (co-star, movie) pairs each actor ends up with
+        int[] edgeCount = new int[n + 1];
+        int[] labelCount = new int[n + 1];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            Arrays.sort(entries, start[v], start[v + 1]);
+            for (int i = start[v]; i < start[v + 1]; i++) {
+                if (i == start[v] || entries[i] >>> 32 != entries[i - 1] >>> 32) {
+                    edgeCount[v + 1]++;
+                    labelCount[v + 1]++;
+                }
+                else if (entries[i] != entries[i - 1]) {
+                    labelCount[v + 1]++;
+                }
+            }
+        });
+        for (int v = 0; v < n; v++) {
+            edgeCount[v + 1] += edgeCount[v];
+            labelCount[v + 1] += labelCount[v];
+        }
+
+        //collapse each group into one edge and its distinct movies into the label pool
+        offsets = edgeCount;
+        neighbors = new int[edgeCount[n]];
+        labelOffsets = new int[edgeCount[n] + 1];
+        labelPool = new int[labelCount[n]];
+        labelOffsets[edgeCount[n]] = labelCount[n];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            int edge = edgeCount[v];
+            int label = labelCount[v];
+            for (int i = start[v]; i < start[v + 1]; i++) {
+                if (i == start[v] || entries[i] >>> 32 != entries[i - 1] >>> 32) {
+                    labelOffsets[edge] = label;
+                    neighbors[edge++] = (int) (entries[i] >>> 32);
+                    labelPool[label++] = (int) entries[i];
+                }
+                else if (entries[i] != entries[i - 1]) {
+                    labelPool[label++] = (int) entries[i];
+                }
+            }
+        });
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.phase("csr edges", System.nanoTime() - phaseStart);
+        }
+    }
+
+    //constructor wraps arrays that already hold a built graph, as read back from a snapshot
+    CSRGraph(String[] actorNames, String[] movieIDs, String[] movieNames, int[] offsets, int[] neighbors,
+             int[] labelOffsets, int[] labelPool, ComponentIndex components) {
+        this(new SymbolTable(Arrays.asList(actorNames)), actorNames, movieIDs, movieNames, offsets, neighbors,
+                labelOffsets, labelPool, components);
+    }
+
+    //constructor wraps arrays and a symbol table whose ids already match actorNames
+    CSRGraph(SymbolTable actors, String[] actorNames, String[] movieIDs, String[] movieNames, int[] offsets,
+             int[] neighbors, int[] labelOffsets, int[] labelPool, ComponentIndex components) {
+        this.actors = actors;
+        this.actorNames = actorNames;
+        this.movieIDs = movieIDs;
+        this.movieNames = movieNames;
+        this.movieLabels = new MovieLabelSet.Table(movieNames);
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.labelOffsets = labelOffsets;
+        this.labelPool = labelPool;
+        this.components = components;
+    }
+
+    //copy of this graph with cast records added. added maps a movie id to the actor ids that
+    //joined its cast, and the maps hold the full tables with the additions already in them.
+    //actors and movies keep their dense ids and new ones get the next ids, so trees over this
+    //graph stay valid. only the slices of actors who gained entries are merged, the rest are
+    //copied as they are. this graph is left untouched for anyone still reading it
+    public CSRGraph extend(Map<String, String> actorIDtoName, Map<String, String> movieIDtoName,
+                           Map<String, List<String>> movieActors, Map<String, List<String>> added) {
+
+        //new actor names and new movies go after the ones already here
+        SymbolTable grownActors = new SymbolTable(actors);
+        for (List<String> joined : added.values()) {
+            for (String actorID : joined) {
+                String name = actorIDtoName.get(actorID);
+                if (name != null) {
+                    grownActors.add(name);
+                }
+            }
+        }
+        int n = grownActors.size();
+        String[] grownNames = Arrays.copyOf(actorNames, n);
+        for (int v = actorNames.length; v < n; v++) {
+            grownNames[v] = grownActors.name(v);
+        }
+        Map<String, Integer> movieIndex = new HashMap<>();
+        for (int movie = 0; movie < movieIDs.length; movie++) {
+            movieIndex.put(movieIDs[movie], movie);
+        }
+        List<String> newMovies = new ArrayList<>();
+        for (String movieID : added.keySet()) {
+            if (!movieIndex.containsKey(movieID)) {
+                movieIndex.put(movieID, movieIDs.length + newMovies.size());
+                newMovies.add(movieID);
+            }
+        }
+        String[] grownMovieIDs = Arrays.copyOf(movieIDs, movieIDs.length + newMovies.size());
+        String[] grownMovieNames = Arrays.copyOf(movieNames, grownMovieIDs.length);
+        for (int movie = movieIDs.length; movie < grownMovieIDs.length; movie++) {
+            grownMovieIDs[movie] = newMovies.get(movie - movieIDs.length);
+        }
+
+        //every pair in a touched cast with at least one new member, packed as
+        //(actor << 32 | co-star) with the movie alongside, the way the constructor pairs casts.
+        //touched casts also join the components they now connect
+        int[] count = new int[n];
+        int[] parent = components.forest(n);
+        List<long[]> pairs = new ArrayList<>();
+        for (Map.Entry<String, List<String>> joined : added.entrySet()) {
+            int movie = movieIndex.get(joined.getKey());
+            grownMovieNames[movie] = movieIDtoName.get(joined.getKey());
+            Set<String> fresh = new HashSet<>(joined.getValue());
+            List<String> castIDs = movieActors.get(joined.getKey());
+            int[] cast = new int[castIDs.size()];
+            boolean[] isNew = new boolean[cast.length];
+            int k = 0;
+            for (String actorID : castIDs) {
+                int id = grownActors.id(actorIDtoName.get(actorID));
+                if (id >= 0) {
+                    isNew[k] = fresh.contains(actorID);
+                    cast[k++] = id;
+                }
+            }
+            for (int i = 1; i < k; i++) {
+                ComponentIndex.union(parent, cast[0], cast[i]);
+            }
+            for (int i = 0; i < k; i++) {
+                for (int j = i + 1; j < k; j++) {
+                    if (isNew[i] || isNew[j]) {
+                        pairs.add(new long[]{((long) cast[i] << 32) | cast[j], movie});
+                        count[cast[i]]++;
+                        count[cast[j]]++;
+                    }
+                }
+            }
+        }
+
+        //new entries per actor as (co-star << 32 | movie), sorted like the constructor's slices
+        long[][] entries = new long[n][];
+        for (int v = 0; v < n; v++) {
+            if (count[v] > 0) {
+                entries[v] = new long[count[v]];
+                count[v] = 0;
+            }
+        }
+        for (long[] pair : pairs) {
+            int a = (int) (pair[0] >>> 32);
+            int b = (int) pair[0];
+            entries[a][count[a]++] = ((long) b << 32) | pair[1];
+            entries[b][count[b]++] = ((long) a << 32) | pair[1];
+        }
+
+        //touched actors merge their old edges and labels with the new entries
+        for (int v = 0; v < n; v++) {
+            if (entries[v] != null && v < actorNames.length) {
+                long[] merged = Arrays.copyOf(entries[v], entries[v].length + labelCount(v));
+                int k = entries[v].length;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    for (int i = labelOffsets[e]; i < labelOffsets[e + 1]; i++) {
+                        merged[k++] = ((long) neighbors[e] << 32) | labelPool[i];
+                    }
+                }
+                entries[v] = merged;
+            }
+            if (entries[v] != null) {
+                Arrays.sort(entries[v]);
+            }
+        }
+
+        //count edges and labels per actor, old slices keep their sizes
+        int[] edgeCount = new int[n + 1];
+        int[] labelCount = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (entries[v] == null) {
+                edgeCount[v + 1] = v < actorNames.length ? degree(v) : 0;
+                labelCount[v + 1] = v < actorNames.length ? labelCount(v) : 0;
+                continue;
+            }
+            long[] slice = entries[v];
+            for (int i = 0; i < slice.length; i++) {
+                if (i == 0 || slice[i] >>> 32 != slice[i - 1] >>> 32) {
+                    edgeCount[v + 1]++;
+                    labelCount[v + 1]++;
+                }
+                else if (slice[i] != slice[i - 1]) {
+                    labelCount[v + 1]++;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            edgeCount[v + 1] += edgeCount[v];
+            labelCount[v + 1] += labelCount[v];
+        }
+
+        //copy untouched slices with their label offsets shifted, collapse the merged ones
+        int[] grownNeighbors = new int[edgeCount[n]];
+        int[] grownLabelOffsets = new int[edgeCount[n] + 1];
+        int[] grownLabelPool = new int[labelCount[n]];
+        grownLabelOffsets[edgeCount[n]] = labelCount[n];
+        for (int v = 0; v < n; v++) {
+            int edge = edgeCount[v];
+            int label = labelCount[v];
+            if (entries[v] == null) {
+                if (v < actorNames.length) {
+                    int shift = label - labelOffsets[offsets[v]];
+                    System.arraycopy(neighbors, offsets[v], grownNeighbors, edge, degree(v));
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        grownLabelOffsets[edge++] = labelOffsets[e] + shift;
+                    }
+                    System.arraycopy(labelPool, labelOffsets[offsets[v]], grownLabelPool, label, labelCount(v));
+                }
+                continue;
+            }
+            long[] slice = entries[v];
+            for (int i = 0; i < slice.length; i++) {
+                if (i == 0 || slice[i] >>> 32 != slice[i - 1] >>> 32) {
+                    grownLabelOffsets[edge] = label;
+                    grownNeighbors[edge++] = (int) (slice[i] >>> 32);
+                    grownLabelPool[label++] = (int) slice[i];
+                }
+                else if (slice[i] != slice[i - 1]) {
+                    grownLabelPool[label++] = (int) slice[i];
+                }
+            }
+        }
+        return new CSRGraph(grownActors, grownNames, grownMovieIDs, grownMovieNames, edgeCount, grownNeighbors,
+                grownLabelOffsets, grownLabelPool, new ComponentIndex(parent));
+    }
+
+    //dense id of an actor, or -1 if the actor is not in the graph
+    public int indexOf(String actor) {
+        return actors.id(actor);
+    }
+
+    //number of co-stars of the actor with the given dense id
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    //actors ordered by degree. built once per graph, a race only builds an identical copy
+    public DegreeIndex degrees() {
+        DegreeIndex index = degreeIndex;
+        if (index == null) {
+            index = new DegreeIndex(this);
+            degreeIndex = index;
+        }
+        return index;
+    }
+
+    //componentEdges()[c] is the number of directed edges inside component c. built once per
+    //graph, a race only builds an identical copy
+    public long[] componentEdges() {
+        long[] edges = componentEdges;
+        if (edges == null) {
+            edges = new long[components.count()];
+            for (int v = 0; v < actorNames.length; v++) {
+                edges[components.component[v]] += degree(v);
+            }
+            componentEdges = edges;
+        }
+        return edges;
+    }
+
+    //number of (co-star, movie) labels across all of the actor's edges
+    public int labelCount(int v) {
+        return labelOffsets[offsets[v + 1]] - labelOffsets[offsets[v]];
+    }
+
+    //bytes held by the adjacency, label and component arrays and the name arrays'
+    //references, not counting the strings themselves or the symbol table
+    public long footprint() {
+        long ints = (long) offsets.length + neighbors.length + labelOffsets.length + labelPool.length
+                + components.component.length + components.size.length;
+        long references = (long) actorNames.length + movieIDs.length + movieNames.length;
+        return ints * Integer.BYTES + references * 8;
+    }
+
+    //position of the edge u -> v in neighbors, or -1 if there is no such edge
+    public int edgeIndex(int u, int v) {
+        int e = Arrays.binarySearch(neighbors, offsets[u], offsets[u + 1], v);
+        return e < 0 ? -1 : e;
+    }
+
+    //looks up an actor's id, failing the same way for every accessor
+    private int requireIndex(String actor) {
+        int id = indexOf(actor);
+        if (id < 0) {
+            throw new IllegalArgumentException(actor + " is not in the graph");
+        }
+        return id;
+    }
+
+    @Override
+    public int numVertices() {
+        return actorNames.length;
+    }
+
+    @Override
+    public int numEdges() {
+        return neighbors.length;
+    }
+
+    @Override
+    public Iterable<String> vertices() {
+        return Collections.unmodifiableList(Arrays.asList(actorNames));
+    }
+
+    @Override
+    public boolean hasVertex(String v) {
+        return actors.id(v) >= 0;
+    }
+
+    @Override
+    public int outDegree(String v) {
+        return degree(requireIndex(v));
+    }
+
+    //the graph is undirected so in and out degree agree
+    @Override
+    public int inDegree(String v) {
+        return outDegree(v);
+    }
+
+    @Override
+    public Iterable<String> outNeighbors(String v) {
+        int u = requireIndex(v);
+        return () -> new Iterator<String>() {
+            int e = offsets[u];
+
+            @Override
+            public boolean hasNext() {
+                return e < offsets[u + 1];
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return actorNames[neighbors[e++]];
+            }
+        };
+    }
+
+    @Override
+    public Iterable<String> inNeighbors(String v) {
+        return outNeighbors(v);
+    }
+
+    @Override
+    public boolean hasEdge(String u, String v) {
+        int a = indexOf(u);
+        int b = indexOf(v);
+        return a >= 0 && b >= 0 && edgeIndex(a, b) >= 0;
+    }
+
+    //the movies shared by two actors as a label over movieNames, null if they share none
+    @Override
+    public Set<String> getLabel(String u, String v) {
+        int a = indexOf(u);
+        int b = indexOf(v);
+        int e = (a < 0 || b < 0) ? -1 : edgeIndex(a, b);
+        return e < 0 ? null : label(e);
+    }
+
+    //the movies on edge e as a label over movieNames
+    public MovieLabelSet label(int e) {
+        return movieLabels.of(labelPool, labelOffsets[e], labelOffsets[e + 1]);
+    }
+
+    @Override
+    public void insertVertex(String v) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    @Override
+    public void insertDirected(String u, String v, Set<String> e) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    @Override
+    public void insertUndirected(String u, String v, Set<String> e) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    @Override
+    public void removeVertex(String v) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    @Override
+    public void removeDirected(String u, String v) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    @Override
+    public void removeUndirected(String u, String v) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    //true if there is a path between the two actors
+    public boolean connected(String u, String v) {
+        int a = indexOf(u);
+        int b = indexOf(v);
+        return a >= 0 && b >= 0 && components.connected(a, b);
+    }
+
+    @Override
+    public String toString() {
+        return "CSRGraph: " + numVertices() + " actors, " + numEdges() + " directed edges, "
+                + labelPool.length + " movie labels, " + components.count() + " components";
+    }
+
+    //heap in use after asking the collector to settle
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    //average milliseconds for one bfs from center over the given graph
+    private static double timeBFS(Graph<String, Set<String>> g, String center, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            GraphLib.bfs(g, center);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            GraphLib.bfs(g, center);
+        }
+        return (System.nanoTime() - begin) / 1e6 / rounds;
+    }
+
+    //main compares heap footprint and bfs time against the map based graph
+    public static void main(String[] args) throws Exception {
+        BaconGraph graph = new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt");
+        String center = "Kevin Bacon";
+
+        //rebuild each representation from the shared maps so only the graph itself is measured
+        graph.actorMovieGraph = null;
+        long beforeMap = usedHeap();
+        Graph<String, Set<String>> mapGraph = new AdjacencyMapGraph<>();
+        graph.mapToGraph(graph.movieActors, mapGraph);
+        long afterMap = usedHeap();
+        CSRGraph csr = new CSRGraph(graph.actorIDtoName, graph.movieIDtoName, graph.movieActors);
+        long afterCSR = usedHeap();
+        System.out.println(csr);
+
+        //the two graphs should produce the same shortest path tree sizes and separation
+        Graph<String, Set<String>> mapTree = GraphLib.bfs(mapGraph, center);
+        Graph<String, Set<String>> csrTree = GraphLib.bfs(csr, center);
+        System.out.println("map tree: " + mapTree.numVertices() + " actors, average separation "
+                + GraphLib.averageSeparation(mapTree, center));
+        System.out.println("csr tree: " + csrTree.numVertices() + " actors, average separation "
+                + GraphLib.averageSeparation(csrTree, center));
+
+        System.out.printf("map graph: %,d bytes, bfs %.2f ms%n", afterMap - beforeMap, timeBFS(mapGraph, center, 20));
+        System.out.printf("csr graph: %,d bytes, bfs %.2f ms%n", afterCSR - afterMap, timeBFS(csr, center, 20));
+    }
+}
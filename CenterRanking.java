@@ -0,0 +1,186 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Ranks the actors of one connected component by average separation, so
+ * rankings follow the component of the current center of the universe and
+ * no bfs is ever started from an actor outside it. Every actor in a component reaches
+ * the same actors, so ranking by average separation is ranking by the total
+ * distance to the rest of the component.
+ *
+ * The best centers are found exactly with a bounded heap of the k best
+ * totals seen so far. Sources are tried most connected first, and a
+ * source's bfs stops as soon as the lower bound on its total can no longer
+ * make the heap. The approximate mode follows Eppstein and Wang: it runs a
+ * bfs from about log(n) / epsilon^2 random pivots and estimates each
+ * actor's average from its distances to the pivots, which is within epsilon
+ * times the diameter of the true average with high probability.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class CenterRanking {
+
+    //runs every bfs, with per-worker buffers
+    private final SeparationEngine engine;
+
+    //graph the engine runs over
+    private final CSRGraph graph;
+
+    //constructor ranks with the given engine over its graph
+    public CenterRanking(CSRGraph graph, SeparationEngine engine) {
+        this.graph = graph;
+        this.engine = engine;
+    }
+
+    //the k actors of a component with the lowest average separation, best first
+    public List<String> closest(int component, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        int size = graph.components.size[component];
+        int[] sources = byDegree(component);
+
+        //heap of the k best as (total << 32 | id) with the worst on top, which once the heap
+        //is full is copied out for the workers to set their pruning limits from
+        PriorityQueue<Long> best = new PriorityQueue<>(Comparator.reverseOrder());
+        long[] worst = {Long.MAX_VALUE};
+        AtomicInteger next = new AtomicInteger();
+        int workers = Runtime.getRuntime().availableProcessors();
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            int i;
+            while ((i = next.getAndIncrement()) < sources.length) {
+                int source = sources[i];
+                long bound;
+                synchronized (best) {
+                    bound = worst[0];
+                }
+
+                //a total equal to the worst kept only gets in on a smaller id
+                long limit = bound == Long.MAX_VALUE ? Long.MAX_VALUE
+                        : (bound >>> 32) - (source > (int) bound ? 1 : 0);
+                long total = engine.farness(source, size, limit);
+                if (total < 0) {
+                    continue;
+                }
+                synchronized (best) {
+                    best.add(total << 32 | source);
+                    if (best.size() > k) {
+                        best.poll();
+                    }
+                    if (best.size() == k) {
+                        worst[0] = best.peek();
+                    }
+                }
+            }
+        });
+        return names(best, false);
+    }
+
+    //the k actors of a component with the highest average separation, worst first.
+    //nothing prunes these, so every source runs its whole bfs in parallel
+    public List<String> farthest(int component, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        int[] members = graph.components.members(component);
+        int size = members.length;
+        long[] totals = new long[size];
+        IntStream.range(0, size).parallel().forEach(i ->
+                totals[i] = engine.farness(members[i], size, Long.MAX_VALUE));
+        return select(members, totals, k, true);
+    }
+
+    //the k closest (k > 0) or -k farthest (k < 0) actors of a component, estimated from
+    //bfs runs out of ceil(ln n / epsilon^2) random pivots. falls back to the exact ranking
+    //when that is as many pivots as the component has actors. epsilon must be finite and positive
+    public List<String> approximate(int component, int k, double epsilon) {
+        if (!(epsilon > 0) || Double.isInfinite(epsilon)) {
+            throw new IllegalArgumentException("epsilon must be finite and positive: " + epsilon);
+        }
+        int[] members = graph.components.members(component);
+        int size = members.length;
+        int pivots = (int) Math.min(size, Math.ceil(Math.log(size) / (epsilon * epsilon)));
+        if (pivots >= size || size < 2) {
+            return k >= 0 ? closest(component, k) : farthest(component, -k);
+        }
+
+        //distinct pivots from a partial shuffle of the component
+        int[] chosen = Arrays.copyOf(members, size);
+        SplittableRandom random = new SplittableRandom();
+        for (int i = 0; i < pivots; i++) {
+            int j = i + random.nextInt(size - i);
+            int swap = chosen[i];
+            chosen[i] = chosen[j];
+            chosen[j] = swap;
+        }
+
+        //every worker sums the distances from its share of the pivots, then the sums are merged
+        int n = graph.numVertices();
+        int workers = Math.min(pivots, Runtime.getRuntime().availableProcessors());
+        long[] sums = IntStream.range(0, workers).parallel().mapToObj(worker -> {
+            long[] partial = new long[n];
+            int[] dist = new int[n];
+            int[] queue = new int[n];
+            Arrays.fill(dist, -1);
+            for (int p = worker; p < pivots; p += workers) {
+                int reached = engine.bfs(chosen[p], dist, queue);
+                for (int i = 0; i < reached; i++) {
+                    partial[queue[i]] += dist[queue[i]];
+                    dist[queue[i]] = -1;
+                }
+            }
+            return partial;
+        }).reduce((a, b) -> {
+            for (int v = 0; v < n; v++) {
+                a[v] += b[v];
+            }
+            return a;
+        }).orElse(new long[n]);
+
+        //estimates share one scale, so the pivot sums rank the same as the estimated averages
+        long[] totals = new long[size];
+        for (int i = 0; i < size; i++) {
+            totals[i] = sums[members[i]];
+        }
+        return select(members, totals, Math.abs(k), k < 0);
+    }
+
+    //the component's actors in decreasing degree, so the likeliest centers fill the heap first
+    private int[] byDegree(int component) {
+        int[] order = graph.degrees().order;
+        int[] sources = new int[graph.components.size[component]];
+        int k = 0;
+        for (int i = order.length - 1; i >= 0; i--) {
+            if (graph.components.component[order[i]] == component) {
+                sources[k++] = order[i];
+            }
+        }
+        return sources;
+    }
+
+    //the k smallest or largest totals of the members through a bounded heap, ties by id
+    private List<String> select(int[] members, long[] totals, int k, boolean largest) {
+        Comparator<Long> weakestFirst = largest ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        PriorityQueue<Long> kept = new PriorityQueue<>(weakestFirst);
+        for (int i = 0; i < totals.length; i++) {
+            int id = members[i];
+            kept.add(totals[i] << 32 | (largest ? Integer.MAX_VALUE - id : id));
+            if (kept.size() > k) {
+                kept.poll();
+            }
+        }
+        return names(kept, largest);
+    }
+
+    //empties a heap of (total << 32 | id) entries into names, best of the kept first
+    private List<String> names(PriorityQueue<Long> kept, boolean largest) {
+        String[] names = new String[kept.size()];
+        for (int i = names.length - 1; i >= 0; i--) {
+            int id = (int) (long) kept.poll();
+            names[i] = graph.actorNames[largest ? Integer.MAX_VALUE - id : id];
+        }
+        return new ArrayList<>(Arrays.asList(names));
+    }
+}
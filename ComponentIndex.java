@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/**
+ * Connected components of the actor graph, found with union-find while the
+ * edges are built. Every actor gets the id of its component, and components
+ * are numbered in order of their lowest actor id. Two actors are connected
+ * exactly when their component ids match, so reachability is one array
+ * lookup per actor.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class ComponentIndex {
+
+    //component[v] is the id of actor v's component
+    public final int[] component;
+
+    //size[c] is the number of actors in component c
+    public final int[] size;
+
+    //constructor labels the trees of a union-find forest, one component per root
+    public ComponentIndex(int[] parent) {
+        int n = parent.length;
+        component = new int[n];
+        int[] label = new int[n];
+        Arrays.fill(label, -1);
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            if (label[root] < 0) {
+                label[root] = count++;
+            }
+            component[v] = label[root];
+        }
+        size = new int[count];
+        for (int c : component) {
+            size[c]++;
+        }
+    }
+
+    //constructor wraps arrays that already hold the labels, as read back from a snapshot
+    ComponentIndex(int[] component, int[] size) {
+        this.component = component;
+        this.size = size;
+    }
+
+    //a forest of n actors that are each their own component
+    public static int[] singletons(int n) {
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+        }
+        return parent;
+    }
+
+    //root of v's tree, halving the path on the way up
+    public static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    //joins the trees of a and b under the smaller root
+    public static void union(int[] parent, int a, int b) {
+        a = find(parent, a);
+        b = find(parent, b);
+        if (a < b) {
+            parent[b] = a;
+        }
+        else if (b < a) {
+            parent[a] = b;
+        }
+    }
+
+    //a forest for n actors that already holds these components, for joining more into
+    public int[] forest(int n) {
+        int[] parent = singletons(n);
+        int[] root = new int[size.length];
+        Arrays.fill(root, -1);
+        for (int v = 0; v < component.length; v++) {
+            if (root[component[v]] < 0) {
+                root[component[v]] = v;
+            }
+            parent[v] = root[component[v]];
+        }
+        return parent;
+    }
+
+    public int count() {
+        return size.length;
+    }
+
+    //true if there is a path between the two actors
+    public boolean connected(int u, int v) {
+        return component[u] == component[v];
+    }
+
+    //number of actors in v's component, v included
+    public int sizeOf(int v) {
+        return size[component[v]];
+    }
+
+    //ids of the actors in component c, in id order
+    public int[] members(int c) {
+        int[] members = new int[size[c]];
+        int k = 0;
+        for (int v = 0; v < component.length && k < members.length; v++) {
+            if (component[v] == c) {
+                members[k++] = v;
+            }
+        }
+        return members;
+    }
+
+    //id of the component with the most actors
+    public int largest() {
+        int best = 0;
+        for (int c = 1; c < size.length; c++) {
+            if (size[c] > size[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentIndex: " + count() + " components, largest " + (size.length == 0 ? 0 : size[largest()]) + " actors";
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.*;
+
+/**
+ * Actors of a CSRGraph ordered by degree, built once with a counting sort.
+ * Actors with the same number of co-stars sit next to each other in id
+ * order, and the start of every degree's run is recorded, so all actors in
+ * a degree range are one contiguous slice and the k most connected actors
+ * are the last k entries.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class DegreeIndex {
+
+    //graph the degrees were read from
+    public final CSRGraph graph;
+
+    //actor ids by increasing degree, ties in id order
+    public final int[] order;
+
+    //order[degreeStart[d]..degreeStart[d+1]) holds the actors with exactly d co-stars
+    public final int[] degreeStart;
+
+    //constructor counts actors per degree and places each in its degree's run
+    public DegreeIndex(CSRGraph graph) {
+        this.graph = graph;
+        int n = graph.numVertices();
+        int max = 0;
+        for (int v = 0; v < n; v++) {
+            max = Math.max(max, graph.degree(v));
+        }
+        degreeStart = new int[max + 2];
+        for (int v = 0; v < n; v++) {
+            degreeStart[graph.degree(v) + 1]++;
+        }
+        for (int d = 0; d <= max; d++) {
+            degreeStart[d + 1] += degreeStart[d];
+        }
+        order = new int[n];
+        int[] fill = Arrays.copyOf(degreeStart, max + 1);
+        for (int v = 0; v < n; v++) {
+            order[fill[graph.degree(v)]++] = v;
+        }
+    }
+
+    //largest number of co-stars any actor has
+    public int maxDegree() {
+        return degreeStart.length - 2;
+    }
+
+    //number of actors with between low and high co-stars inclusive
+    public int count(int low, int high) {
+        low = Math.max(low, 0);
+        high = Math.min(high, maxDegree());
+        return low > high ? 0 : degreeStart[high + 1] - degreeStart[low];
+    }
+
+    //actors with between low and high co-stars inclusive, fewest first
+    public List<String> between(int low, int high) {
+        low = Math.max(low, 0);
+        high = Math.min(high, maxDegree());
+        List<String> found = new ArrayList<>();
+        if (low > high) {
+            return found;
+        }
+        for (int i = degreeStart[low]; i < degreeStart[high + 1]; i++) {
+            found.add(graph.actorNames[order[i]]);
+        }
+        return found;
+    }
+
+    //the k actors with the most co-stars, most first and ties in id order
+    public List<String> top(int k) {
+        List<String> found = new ArrayList<>();
+        for (int d = maxDegree(); d >= 0 && found.size() < k; d--) {
+            for (int i = degreeStart[d]; i < degreeStart[d + 1] && found.size() < k; i++) {
+                found.add(graph.actorNames[order[i]]);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,278 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Direction-optimizing bfs over a CSRGraph, after Beamer, Asanovic and
+ * Patterson. While the frontier is small a level is expanded top-down, each
+ * frontier actor scanning its co-stars. Every movie's cast is a clique, so
+ * in the middle levels nearly all of those co-stars have been visited
+ * already. Once the frontier's edges outweigh the unexplored ones the
+ * level is found bottom-up instead: every actor of the component not yet
+ * reached looks through its co-stars for one in the frontier and stops at
+ * the first. Visited and frontier actors are bitsets, and a bottom-up
+ * level can be split across cores because each actor only writes its own
+ * entries. A bottom-up level runs over the bitsets of the whole graph, so
+ * only sources whose component holds a large share of the actors ever
+ * switch, and searches from small components stay top-down and cost no
+ * more than their component.
+ *
+ * An instance holds the buffers of one search at a time and clears what
+ * the last search reached when the next one starts, so each thread needs
+ * its own.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class DirectionOptimizingBFS {
+
+    //go bottom-up once the frontier's edges are more than the unexplored edges over ALPHA.
+    //every cast is a clique, so bottom-up pays off much sooner here than on the sparse graphs
+    //the paper's ALPHA = 14 was tuned for, and 1 was fastest on the PS4 data
+    static final int ALPHA = 1;
+
+    //go back top-down once the frontier holds fewer than the component's actors over BETA
+    static final int BETA = 24;
+
+    //only go bottom-up from components holding at least the graph's actors over SHARE, so a
+    //bottom-up level costs at most SHARE times the component
+    static final int SHARE = 4;
+
+    //graph every search runs over
+    public final CSRGraph graph;
+
+    //dist[v] is the number of steps from the source to v, -1 if v was not reached
+    public final int[] dist;
+
+    //parent[v] is v's neighbor one step closer to the source, source for the source and -1 if
+    //v was not reached. null unless parents were asked for
+    public final int[] parent;
+
+    //reached actors level by level, queue[levelStart..levelEnd) is the frontier depth steps out
+    public final int[] queue;
+    public int levelStart;
+    public int levelEnd;
+    public int depth;
+
+    //co-star entries looked at by the current search
+    public long edgesScanned;
+
+    //whether bottom-up levels are split across cores
+    private final boolean parallel;
+
+    //one bit per actor
+    private final long[] visited;
+    private final long[] frontier;
+
+    //bits past the last actor in the last word of the bitsets, never searched
+    private final long pastEnd;
+
+    //component of the current source, whether it is large enough to go bottom-up, and the
+    //degree sums of the actors reached so far and of the frontier
+    private int component;
+    private boolean large;
+    private long exploredEdges;
+    private long frontierEdges;
+    private boolean bottomUp;
+
+    //constructor sets up buffers for searches over one graph, filling parents too if asked
+    public DirectionOptimizingBFS(CSRGraph graph, boolean parents, boolean parallel) {
+        this.graph = graph;
+        this.parallel = parallel;
+        int n = graph.numVertices();
+        dist = new int[n];
+        Arrays.fill(dist, -1);
+        if (parents) {
+            parent = new int[n];
+            Arrays.fill(parent, -1);
+        }
+        else {
+            parent = null;
+        }
+        queue = new int[n];
+        visited = new long[(n + 63) >>> 6];
+        frontier = new long[visited.length];
+        pastEnd = (n & 63) == 0 ? 0 : -1L << n;
+    }
+
+    //searches from source all the way out, returns how many actors it reached
+    public int run(int source) {
+        start(source);
+        while (step()) {
+        }
+        return levelEnd;
+    }
+
+    //clears the last search and puts source alone on level 0
+    public void start(int source) {
+        for (int i = 0; i < levelEnd; i++) {
+            int v = queue[i];
+            dist[v] = -1;
+            if (parent != null) {
+                parent[v] = -1;
+            }
+            visited[v >>> 6] &= ~(1L << v);
+        }
+        component = graph.components.component[source];
+        large = (long) graph.components.size[component] * SHARE >= graph.numVertices();
+        dist[source] = 0;
+        if (parent != null) {
+            parent[source] = source;
+        }
+        visited[source >>> 6] |= 1L << source;
+        queue[0] = source;
+        levelStart = 0;
+        levelEnd = 1;
+        depth = 0;
+        edgesScanned = 0;
+        exploredEdges = graph.degree(source);
+        frontierEdges = exploredEdges;
+        bottomUp = false;
+    }
+
+    //finds the next level in whichever direction should be cheaper and makes it the frontier.
+    //returns false once a level reaches no one new
+    public boolean step() {
+        long unexplored = graph.componentEdges()[component] - exploredEdges;
+        if (!large) {
+            bottomUp = false;
+        }
+        else if (!bottomUp && frontierEdges > unexplored / ALPHA) {
+            bottomUp = true;
+        }
+        else if (bottomUp && levelEnd - levelStart < graph.components.size[component] / BETA) {
+            bottomUp = false;
+        }
+
+        //every actor of the component has been reached once no edges are left unexplored,
+        //since only a lone actor has none, so the next level is empty without looking
+        long explored = exploredEdges;
+        int tail = unexplored == 0 ? levelEnd : bottomUp ? bottomUpStep() : topDownStep();
+        frontierEdges = exploredEdges - explored;
+        levelStart = levelEnd;
+        levelEnd = tail;
+        depth++;
+        return levelEnd > levelStart;
+    }
+
+    //every frontier actor claims its unvisited co-stars, returns the new end of the queue.
+    //tests dist, which is read anyway, and only sets the visited bits for bottom-up levels
+    private int topDownStep() {
+        int[] offsets = graph.offsets;
+        int[] neighbors = graph.neighbors;
+        long[] visited = this.visited;
+        int[] dist = this.dist;
+        int[] parent = this.parent;
+        int[] queue = this.queue;
+        int next = depth + 1;
+        int tail = levelEnd;
+        long explored = 0;
+        for (int i = levelStart; i < levelEnd; i++) {
+            int u = queue[i];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = neighbors[e];
+                if (dist[v] < 0) {
+                    visited[v >>> 6] |= 1L << v;
+                    dist[v] = next;
+                    if (parent != null) {
+                        parent[v] = u;
+                    }
+                    explored += offsets[v + 1] - offsets[v];
+                    queue[tail++] = v;
+                }
+            }
+        }
+        edgesScanned += frontierEdges;
+        exploredEdges += explored;
+        return tail;
+    }
+
+    //every unvisited actor of the source's component looks for a co-star in the frontier,
+    //appending the ones that find one in id order. returns the new end of the queue
+    private int bottomUpStep() {
+        for (int i = levelStart; i < levelEnd; i++) {
+            frontier[queue[i] >>> 6] |= 1L << queue[i];
+        }
+
+        int tail = levelEnd;
+        int words = visited.length;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int chunks = parallel && cores > 1 ? Math.min(words, 4 * cores) : 1;
+        if (chunks <= 1) {
+            long[] scanned = new long[1];
+            tail = claim(0, words, queue, tail, scanned, 0);
+            edgesScanned += scanned[0];
+        }
+        else {
+            //chunks own whole words of the bitsets, so they never write the same word, and
+            //their finds are appended in chunk order to keep the level in id order
+            long[] scanned = new long[chunks];
+            int[][] found = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+                int[] mine = new int[64 * (int) ((long) (c + 1) * words / chunks - (long) c * words / chunks)];
+                int size = claim((int) ((long) c * words / chunks), (int) ((long) (c + 1) * words / chunks),
+                        mine, 0, scanned, c);
+                return Arrays.copyOf(mine, size);
+            }).toArray(int[][]::new);
+            for (int c = 0; c < chunks; c++) {
+                System.arraycopy(found[c], 0, queue, tail, found[c].length);
+                tail += found[c].length;
+                edgesScanned += scanned[c];
+            }
+        }
+        for (int i = levelEnd; i < tail; i++) {
+            exploredEdges += graph.degree(queue[i]);
+        }
+
+        for (int i = levelStart; i < levelEnd; i++) {
+            frontier[queue[i] >>> 6] &= ~(1L << queue[i]);
+        }
+        return tail;
+    }
+
+    //bottom-up over the actors in words [from, to), writing the ones reached into out from
+    //size on and the entries looked at into scanned[slot]. returns the new size
+    private int claim(int from, int to, int[] out, int size, long[] scanned, int slot) {
+        int[] offsets = graph.offsets;
+        int[] neighbors = graph.neighbors;
+        int[] components = graph.components.component;
+        long[] visited = this.visited;
+        long[] frontier = this.frontier;
+        int[] dist = this.dist;
+        int[] parent = this.parent;
+        int component = this.component;
+        int next = depth + 1;
+        long looked = 0;
+        for (int w = from; w < to; w++) {
+            long unvisited = ~visited[w];
+            if (w == visited.length - 1) {
+                unvisited &= ~pastEnd;
+            }
+            long claimed = 0;
+            while (unvisited != 0) {
+                int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                unvisited &= unvisited - 1;
+                if (components[v] != component) {
+                    continue;
+                }
+                int e = offsets[v];
+                int end = offsets[v + 1];
+                while (e < end && (frontier[neighbors[e] >>> 6] & (1L << neighbors[e])) == 0) {
+                    e++;
+                }
+                if (e == end) {
+                    looked += end - offsets[v];
+                    continue;
+                }
+                looked += e - offsets[v] + 1;
+                claimed |= 1L << v;
+                dist[v] = next;
+                if (parent != null) {
+                    parent[v] = neighbors[e];
+                }
+                out[size++] = v;
+            }
+            visited[w] |= claimed;
+        }
+        scanned[slot] = looked;
+        return size;
+    }
+}
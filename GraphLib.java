@@ -1,5 +1,6 @@
 import java.util.*;
 import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Library for graph analysis
@@ -22,8 +23,8 @@ public class GraphLib {
     public static <V,E> List<V> randomWalk(Graph<V,E> g, V start, int steps) {
         //count serves as a countdown for steps left to take
         int count = steps;
-        //random object
-        Random random = new Random();
+        //the calling thread's shared generator, nothing to allocate per walk
+        Random random = ThreadLocalRandom.current();
         //create a list to track a path of vertices
         ArrayList<V> randomWalkPath = new ArrayList<>();
 
@@ -74,19 +75,65 @@ public class GraphLib {
      * @return		list of vertices sorted by in-degree, decreasing (i.e., largest at index 0)
      */
     public static <V,E> List<V> verticesByInDegree(Graph<V,E> g) {
-        //create a list of all verticies
-        ArrayList<V> sortedInDegreeList = new ArrayList<>();
+        //look every in degree up once, next to its vertex
+        List<V> vertices = new ArrayList<>();
         for (V vertex : g.vertices()){
-            sortedInDegreeList.add(vertex);
+            vertices.add(vertex);
+        }
+        int[] degree = new int[vertices.size()];
+        int max = 0;
+        for (int i = 0; i < degree.length; i++){
+            degree[i] = g.inDegree(vertices.get(i));
+            max = Math.max(max, degree[i]);
         }
 
-        //sort list by each vertex's in degree value.
-        sortedInDegreeList.sort((v1,v2) -> g.inDegree(v2) - g.inDegree(v1));
+        //counting sort from the largest degree down, ties keep the graph's vertex order
+        int[] start = new int[max + 2];
+        for (int d : degree){
+            start[max - d + 1]++;
+        }
+        for (int i = 0; i <= max; i++){
+            start[i + 1] += start[i];
+        }
+        List<V> sortedInDegreeList = new ArrayList<>(Collections.nCopies(degree.length, (V) null));
+        for (int i = 0; i < degree.length; i++){
+            sortedInDegreeList.set(start[max - degree[i]]++, vertices.get(i));
+        }
 
         //return a sorted list
         return sortedInDegreeList;
     }
 
+    //the k vertices with the largest in degree, largest first, the same as the first k of
+    //verticesByInDegree. keeps a heap of the best k seen so far, so it takes n log k time
+    public static <V,E> List<V> topByInDegree(Graph<V,E> g, int k) {
+        List<V> vertices = new ArrayList<>();
+        List<Integer> degrees = new ArrayList<>();
+
+        //the heap's head is the weakest of the kept vertices: smallest degree, latest on ties
+        PriorityQueue<Integer> best = new PriorityQueue<>((a, b) -> degrees.get(a).equals(degrees.get(b))
+                ? Integer.compare(b, a) : Integer.compare(degrees.get(a), degrees.get(b)));
+        for (V vertex : g.vertices()){
+            int i = vertices.size();
+            vertices.add(vertex);
+            degrees.add(g.inDegree(vertex));
+            if (best.size() < k){
+                best.add(i);
+            }
+            else if (k > 0 && degrees.get(i) > degrees.get(best.peek())){
+                best.poll();
+                best.add(i);
+            }
+        }
+
+        //the heap empties weakest first, so fill the answer from the back
+        List<V> top = new ArrayList<>(Collections.nCopies(best.size(), (V) null));
+        for (int i = top.size() - 1; i >= 0; i--){
+            top.set(i, vertices.get(best.poll()));
+        }
+        return top;
+    }
+
     //BFS to find shortest path tree for a current center of the universe. Return a path tree as a Graph.
     public static <V,E> Graph<V,E> bfs(Graph<V,E> g, V source){
         //bfs algorithm
@@ -94,9 +141,11 @@ public class GraphLib {
         Queue<V> queue = new LinkedList<>();
         queue.add(source);
         returnGraph.insertVertex(source);
+        long edges = 0;
         while(!queue.isEmpty()){
             V u = queue.remove();
             for(V v : g.outNeighbors(u)){
+                edges++;
                 if(!returnGraph.hasVertex(v)){
                     returnGraph.insertVertex(v);
                     returnGraph.insertDirected(v, u, g.getLabel(u, v));
@@ -104,6 +153,154 @@ public class GraphLib {
                 }
             }
         }
+        if(BaconMetrics.ENABLED){
+            BaconMetrics.bfs(returnGraph.numVertices(), edges);
+        }
+        return returnGraph;
+    }
+
+    //BFS from several sources at once, all of them starting at distance 0, so every vertex hangs off
+    //the source nearest to it. Returns a shortest path forest shaped like bfs's tree (edges point
+    //toward the nearest source), so getPath from any reached vertex ends at its nearest source.
+    public static <V,E> Graph<V,E> multiSourceBFS(Graph<V,E> g, Collection<V> sources){
+        AdjacencyMapGraph<V, E> returnGraph = new AdjacencyMapGraph<>();
+        Queue<V> queue = new LinkedList<>();
+        for(V source : sources){
+            if(g.hasVertex(source) && !returnGraph.hasVertex(source)){
+                returnGraph.insertVertex(source);
+                queue.add(source);
+            }
+        }
+        long edges = 0;
+        while(!queue.isEmpty()){
+            V u = queue.remove();
+            for(V v : g.outNeighbors(u)){
+                edges++;
+                if(!returnGraph.hasVertex(v)){
+                    returnGraph.insertVertex(v);
+                    returnGraph.insertDirected(v, u, g.getLabel(u, v));
+                    queue.add(v);
+                }
+            }
+        }
+        if(BaconMetrics.ENABLED){
+            BaconMetrics.bfs(returnGraph.numVertices(), edges);
+        }
+        return returnGraph;
+    }
+
+    //Vertices within k steps of any of the sources, mapped to their distance from the nearest one
+    //and in increasing distance. Grows one frontier at a time and never expands the vertices k
+    //steps out, so only the k-hop neighborhood is explored.
+    public static <V,E> Map<V,Integer> kHopNeighborhood(Graph<V,E> g, Collection<V> sources, int k){
+        Map<V, Integer> dist = new LinkedHashMap<>();
+        List<V> frontier = new ArrayList<>();
+        for(V source : sources){
+            if(g.hasVertex(source) && !dist.containsKey(source)){
+                dist.put(source, 0);
+                frontier.add(source);
+            }
+        }
+        long edges = 0;
+        for(int depth = 1; depth <= k && !frontier.isEmpty(); depth++){
+            List<V> next = new ArrayList<>();
+            for(V u : frontier){
+                for(V v : g.outNeighbors(u)){
+                    edges++;
+                    if(!dist.containsKey(v)){
+                        dist.put(v, depth);
+                        next.add(v);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        if(BaconMetrics.ENABLED){
+            BaconMetrics.bfs(dist.size(), edges);
+        }
+        return dist;
+    }
+
+    //Bidirectional BFS for a single shortest path between source and target. Grows the smaller
+    //frontier one level at a time and stops at the level where the two searches meet, so only the
+    //neighborhoods of the two ends are explored. Returns a path tree rooted at source holding just
+    //the path vertices (edges point toward source, labeled like bfs), or null if there is no path.
+    public static <V,E> Graph<V,E> bidirectionalBFS(Graph<V,E> g, V source, V target){
+        if(!g.hasVertex(source) || !g.hasVertex(target)){
+            return null;
+        }
+
+        //each side maps a vertex to its distance and to its neighbor one step closer to that side's end
+        Map<V, Integer> sourceDist = new HashMap<>();
+        Map<V, Integer> targetDist = new HashMap<>();
+        Map<V, V> towardSource = new HashMap<>();
+        Map<V, V> towardTarget = new HashMap<>();
+        sourceDist.put(source, 0);
+        targetDist.put(target, 0);
+        List<V> sourceFrontier = new ArrayList<>();
+        List<V> targetFrontier = new ArrayList<>();
+        sourceFrontier.add(source);
+        targetFrontier.add(target);
+
+        V meet = source.equals(target) ? source : null;
+        int best = Integer.MAX_VALUE;
+        long edges = 0;
+        while(meet == null && !sourceFrontier.isEmpty() && !targetFrontier.isEmpty()){
+            boolean fromSource = sourceFrontier.size() <= targetFrontier.size();
+            List<V> frontier = fromSource ? sourceFrontier : targetFrontier;
+            Map<V, Integer> dist = fromSource ? sourceDist : targetDist;
+            Map<V, Integer> otherDist = fromSource ? targetDist : sourceDist;
+            Map<V, V> parents = fromSource ? towardSource : towardTarget;
+
+            //expand the whole level so the best meeting point on it is found, not just the first
+            List<V> next = new ArrayList<>();
+            for(V u : frontier){
+                int depth = dist.get(u) + 1;
+                for(V v : fromSource ? g.outNeighbors(u) : g.inNeighbors(u)){
+                    edges++;
+                    if(!dist.containsKey(v)){
+                        dist.put(v, depth);
+                        parents.put(v, u);
+                        next.add(v);
+                    }
+                    Integer other = otherDist.get(v);
+                    if(other != null && dist.get(v) + other < best){
+                        best = dist.get(v) + other;
+                        meet = v;
+                    }
+                }
+            }
+            if(fromSource){
+                sourceFrontier = next;
+            }
+            else{
+                targetFrontier = next;
+            }
+        }
+        if(BaconMetrics.ENABLED){
+            BaconMetrics.bfs(sourceDist.size() + targetDist.size(), edges);
+        }
+        if(meet == null){
+            return null;
+        }
+
+        //stitch the two halves into one path from source to target
+        List<V> path = new ArrayList<>();
+        for(V v = meet; v != null; v = towardSource.get(v)){
+            path.add(v);
+        }
+        Collections.reverse(path);
+        for(V v = towardTarget.get(meet); v != null; v = towardTarget.get(v)){
+            path.add(v);
+        }
+
+        //store the path the same way bfs stores its tree
+        AdjacencyMapGraph<V, E> returnGraph = new AdjacencyMapGraph<>();
+        returnGraph.insertVertex(source);
+        for(int i = 1; i < path.size(); i++){
+            returnGraph.insertVertex(path.get(i));
+            returnGraph.insertDirected(path.get(i), path.get(i - 1), g.getLabel(path.get(i - 1), path.get(i)));
+        }
         return returnGraph;
     }
 
@@ -150,13 +347,25 @@ public class GraphLib {
         return sum / (tree.numVertices() - 1.0);
     }
 
-    //helper method recursively totals up all the distances of nodes to root
+    //helper method totals up the distances of root's subtree to the tree's root, where root itself
+    //sits depth steps down. walks the subtree a level at a time so long chains cannot overflow the stack
     public static <V,E> double averageHelper(Graph<V,E> tree, V root, int depth) {
-        double sum = depth;
-        if(tree.inDegree(root) > 0){
-            for (V child : tree.inNeighbors(root)) {
-                sum += averageHelper(tree, child, depth + 1);
+        double sum = 0;
+        List<V> level = new ArrayList<>();
+        List<V> next = new ArrayList<>();
+        level.add(root);
+        while (!level.isEmpty()) {
+            sum += (double) depth * level.size();
+            for (V parent : level) {
+                for (V child : tree.inNeighbors(parent)) {
+                    next.add(child);
+                }
             }
+            List<V> swap = level;
+            level = next;
+            next = swap;
+            next.clear();
+            depth++;
         }
         return sum;
     }
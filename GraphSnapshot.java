@@ -0,0 +1,317 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Versioned binary snapshot of a loaded BaconGraph. Holds the id and name
+ * tables, the casts, and the CSR adjacency with its movie labels, so a restart
+ * maps one file instead of re-parsing the text files and rebuilding edges.
+ * Records the size and modification time of the text files it was built
+ * from, and a snapshot that no longer matches them is treated as stale.
+ *
+ * Layout, all big-endian: magic, version, (length, lastModified) per source
+ * file, actor names, actor id table, movie table, casts, the CSR movie ids
+ * and names, the four CSR int arrays, then the component of every actor and
+ * the component sizes. Strings are a byte length (-1 for null) followed by
+ * UTF-8.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class GraphSnapshot {
+
+    //"BACN" in ascii
+    public static final int MAGIC = 0x4241434E;
+
+    //bump whenever the layout changes so old snapshots are rebuilt
+    public static final int VERSION = 3;
+
+    //writes the graph and the stamps of its source files, replacing any old snapshot in one move
+    public static void write(BaconGraph graph, String snapshotFile, String... sourceFiles) throws IOException {
+        CSRGraph csr = graph.actorCSRGraph;
+        Path target = Paths.get(snapshotFile);
+        Path temp = Paths.get(snapshotFile + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sourceFiles.length);
+            for (String file : sourceFiles) {
+                File f = new File(file);
+                out.writeLong(f.length());
+                out.writeLong(f.lastModified());
+            }
+
+            //actor names in dense id order
+            out.writeInt(csr.actorNames.length);
+            for (String name : csr.actorNames) {
+                writeString(out, name);
+            }
+
+            //every actor id seen in either file, with its dense name id or -1 if it has no name
+            Map<String, Integer> actorIds = new LinkedHashMap<>();
+            for (String actorID : graph.actorIDtoName.keySet()) {
+                actorIds.put(actorID, actorIds.size());
+            }
+            for (List<String> cast : graph.movieActors.values()) {
+                for (String actorID : cast) {
+                    if (!actorIds.containsKey(actorID)) {
+                        actorIds.put(actorID, actorIds.size());
+                    }
+                }
+            }
+            out.writeInt(actorIds.size());
+            for (String actorID : actorIds.keySet()) {
+                writeString(out, actorID);
+                String name = graph.actorIDtoName.get(actorID);
+                out.writeInt(name == null ? -1 : csr.indexOf(name));
+            }
+
+            //movie id and name table
+            out.writeInt(graph.movieIDtoName.size());
+            for (Map.Entry<String, String> movie : graph.movieIDtoName.entrySet()) {
+                writeString(out, movie.getKey());
+                writeString(out, movie.getValue());
+            }
+
+            //casts as movie id plus positions in the actor id table
+            out.writeInt(graph.movieActors.size());
+            for (Map.Entry<String, List<String>> cast : graph.movieActors.entrySet()) {
+                writeString(out, cast.getKey());
+                out.writeInt(cast.getValue().size());
+                for (String actorID : cast.getValue()) {
+                    out.writeInt(actorIds.get(actorID));
+                }
+            }
+
+            //csr adjacency and labels, movie ids and names in the graph's own movie order
+            out.writeInt(csr.movieNames.length);
+            for (int movie = 0; movie < csr.movieNames.length; movie++) {
+                writeString(out, csr.movieIDs[movie]);
+                writeString(out, csr.movieNames[movie]);
+            }
+            writeInts(out, csr.offsets);
+            writeInts(out, csr.neighbors);
+            writeInts(out, csr.labelOffsets);
+            writeInts(out, csr.labelPool);
+            writeInts(out, csr.components.component);
+            writeInts(out, csr.components.size);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //maps the snapshot and rebuilds the graph from it, or returns null if the snapshot
+    //is missing, from another version, older than any of its source files, or truncated
+    //or corrupt, so the caller falls back to the text files
+    public static BaconGraph load(String snapshotFile, String... sourceFiles) throws IOException {
+        File file = new File(snapshotFile);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), sourceFiles);
+        }
+        //reads past the end of the mapping, or lengths and ids that point nowhere
+        catch (RuntimeException e) {
+            System.err.println("ignoring unreadable snapshot " + snapshotFile + ": " + e);
+            return null;
+        }
+    }
+
+    //rebuilds the graph from a mapped snapshot, null if it is from another version or stale.
+    //every length and id is checked before it is used, and a bad one throws
+    private static BaconGraph read(MappedByteBuffer in, String... sourceFiles) {
+        long begin = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+        if (in.remaining() < 12 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+            return null;
+        }
+        if (in.getInt() != sourceFiles.length) {
+            return null;
+        }
+        for (String source : sourceFiles) {
+            File f = new File(source);
+            long length = in.getLong();
+            long lastModified = in.getLong();
+            if (f.length() != length || f.lastModified() != lastModified) {
+                return null;
+            }
+        }
+
+        String[] actorNames = new String[count(in, 4)];
+        for (int i = 0; i < actorNames.length; i++) {
+            actorNames[i] = readString(in);
+        }
+
+        BaconGraph graph = new BaconGraph();
+        String[] actorIds = new String[count(in, 8)];
+        for (int i = 0; i < actorIds.length; i++) {
+            actorIds[i] = readString(in);
+            int name = in.getInt();
+            check(name < actorNames.length, "actor name id " + name);
+            if (name >= 0) {
+                graph.actorIDtoName.put(actorIds[i], actorNames[name]);
+            }
+        }
+
+        int movies = count(in, 8);
+        for (int i = 0; i < movies; i++) {
+            String movieID = readString(in);
+            graph.movieIDtoName.put(movieID, readString(in));
+        }
+
+        int casts = count(in, 8);
+        for (int i = 0; i < casts; i++) {
+            String movieID = readString(in);
+            int size = count(in, 4);
+            List<String> cast = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                int actor = in.getInt();
+                check(actor >= 0 && actor < actorIds.length, "cast actor id " + actor);
+                cast.add(actorIds[actor]);
+            }
+            graph.movieActors.put(movieID, cast);
+        }
+        long start = BaconMetrics.ENABLED ? System.nanoTime() : 0;
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.phase("snapshot maps", start - begin);
+        }
+
+        String[] movieNames = new String[count(in, 8)];
+        String[] movieIDs = new String[movieNames.length];
+        for (int i = 0; i < movieNames.length; i++) {
+            movieIDs[i] = readString(in);
+            movieNames[i] = readString(in);
+        }
+        int[] offsets = readInts(in);
+        int[] neighbors = readInts(in);
+        int[] labelOffsets = readInts(in);
+        int[] labelPool = readInts(in);
+        int[] component = readInts(in);
+        int[] componentSize = readInts(in);
+        checkCSR(actorNames.length, movieNames.length, offsets, neighbors, labelOffsets, labelPool,
+                component, componentSize);
+        graph.actorCSRGraph = new CSRGraph(actorNames, movieIDs, movieNames, offsets, neighbors,
+                labelOffsets, labelPool, new ComponentIndex(component, componentSize));
+        graph.actorMovieGraph = graph.actorCSRGraph;
+        graph.indexNames();
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.phase("snapshot csr", System.nanoTime() - start);
+            BaconMetrics.phase("snapshot load total", System.nanoTime() - begin);
+            BaconMetrics.graph(graph.actorCSRGraph);
+        }
+        return graph;
+    }
+
+    //reads a length and checks that many entries of at least bytesEach bytes can still follow
+    private static int count(ByteBuffer in, int bytesEach) {
+        int count = in.getInt();
+        check(count >= 0 && count <= in.remaining() / bytesEach, "length " + count);
+        return count;
+    }
+
+    //checks that the csr arrays fit together and every id in them is in range, so a corrupt
+    //snapshot is caught here rather than by the first search that walks into it
+    private static void checkCSR(int actors, int movies, int[] offsets, int[] neighbors, int[] labelOffsets,
+                                 int[] labelPool, int[] component, int[] componentSize) {
+        check(offsets.length == actors + 1 && offsets[0] == 0 && offsets[actors] == neighbors.length,
+                "csr offsets");
+        for (int v = 0; v < actors; v++) {
+            check(offsets[v] <= offsets[v + 1], "csr offsets");
+        }
+        for (int neighbor : neighbors) {
+            check(neighbor >= 0 && neighbor < actors, "csr neighbor " + neighbor);
+        }
+        check(labelOffsets.length == neighbors.length + 1 && labelOffsets[0] == 0
+                && labelOffsets[neighbors.length] == labelPool.length, "csr label offsets");
+        for (int e = 0; e < neighbors.length; e++) {
+            check(labelOffsets[e] <= labelOffsets[e + 1], "csr label offsets");
+        }
+        for (int movie : labelPool) {
+            check(movie >= 0 && movie < movies, "csr movie " + movie);
+        }
+        check(component.length == actors, "component count");
+        for (int c : component) {
+            check(c >= 0 && c < componentSize.length, "component " + c);
+        }
+    }
+
+    //throws for a snapshot that does not hold what its layout says
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            throw new IllegalStateException("corrupt snapshot: bad " + what);
+        }
+    }
+
+    //length prefixed utf-8, -1 marks null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    //reads a string written by writeString and moves past it
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        check(length <= in.remaining(), "string length " + length);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //length prefixed int array
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    //bulk copies a length prefixed int array out of the mapping
+    private static int[] readInts(ByteBuffer in) {
+        int[] values = new int[count(in, 4)];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * values.length);
+        return values;
+    }
+
+    //main times a text load against a snapshot load and checks they hold the same graph
+    public static void main(String[] args) throws Exception {
+        String[] sources = {"PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt"};
+        String snapshotFile = "PS4/bacon.snapshot";
+
+        long begin = System.nanoTime();
+        BaconGraph text = new BaconGraph(sources[0], sources[1], sources[2]);
+        double textTime = (System.nanoTime() - begin) / 1e6;
+        write(text, snapshotFile, sources);
+
+        begin = System.nanoTime();
+        BaconGraph snapshot = load(snapshotFile, sources);
+        double snapshotTime = (System.nanoTime() - begin) / 1e6;
+
+        CSRGraph a = text.actorCSRGraph;
+        CSRGraph b = snapshot.actorCSRGraph;
+        boolean same = text.actorIDtoName.equals(snapshot.actorIDtoName)
+                && text.movieIDtoName.equals(snapshot.movieIDtoName)
+                && text.movieActors.equals(snapshot.movieActors)
+                && Arrays.equals(a.actorNames, b.actorNames) && Arrays.equals(a.movieIDs, b.movieIDs)
+                && Arrays.equals(a.movieNames, b.movieNames)
+                && Arrays.equals(a.offsets, b.offsets) && Arrays.equals(a.neighbors, b.neighbors)
+                && Arrays.equals(a.labelOffsets, b.labelOffsets) && Arrays.equals(a.labelPool, b.labelPool)
+                && Arrays.equals(a.components.component, b.components.component)
+                && Arrays.equals(a.components.size, b.components.size);
+        System.out.println("snapshot matches text load: " + same);
+        System.out.printf("text load: %.1f ms, snapshot load: %.1f ms (%,d bytes)%n",
+                textTime, snapshotTime, new File(snapshotFile).length());
+    }
+}
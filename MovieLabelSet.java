@@ -0,0 +1,152 @@
+import java.util.*;
+
+/**
+ * Edge label holding the movies two actors share, stored as a sorted array
+ * of movie ids into one table of movie names instead of a HashSet of names.
+ * Every label over a table points at the same name strings, the common
+ * single-movie label is one shared instance per movie, and names are only
+ * looked up when the set is printed, iterated or searched. Labels are
+ * immutable, so adding a movie to an edge means storing a new label.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class MovieLabelSet extends AbstractSet<String> {
+
+    //table the ids point into
+    public final Table table;
+
+    //distinct movie ids in increasing order, no two of them with equal names
+    private final int[] movies;
+
+    //constructor wraps ids that are already sorted and distinct
+    private MovieLabelSet(Table table, int[] movies) {
+        this.table = table;
+        this.movies = movies;
+    }
+
+    /**
+     * Movie names by id that labels share, with the single-movie labels
+     * made the first time each is needed.
+     */
+    public static class Table {
+
+        //movie names by id
+        public final String[] names;
+
+        //single[m] is the label holding only movie m, built on first use.
+        //a race only builds an identical copy
+        private final MovieLabelSet[] single;
+
+        //constructor makes a table over the given names, which it does not copy
+        public Table(String[] names) {
+            this.names = names;
+            single = new MovieLabelSet[names.length];
+        }
+
+        //the shared label holding only this movie
+        public MovieLabelSet single(int movie) {
+            MovieLabelSet label = single[movie];
+            if (label == null) {
+                label = new MovieLabelSet(this, new int[]{movie});
+                single[movie] = label;
+            }
+            return label;
+        }
+
+        //label holding the movies in ids[from..to), in any order and with repeats allowed
+        public MovieLabelSet of(int[] ids, int from, int to) {
+            if (to - from == 1) {
+                return single(ids[from]);
+            }
+            int[] movies = Arrays.copyOfRange(ids, from, to);
+            Arrays.sort(movies);
+            return new MovieLabelSet(this, distinct(movies));
+        }
+
+        //label holding the movies of label, whose ids must mean the same here, plus one more.
+        //label is already distinct, so only the new movie's name is checked against it
+        public MovieLabelSet with(MovieLabelSet label, int movie) {
+            if (label == null) {
+                return single(movie);
+            }
+            int at = Arrays.binarySearch(label.movies, movie);
+            if (at >= 0) {
+                return label;
+            }
+            for (int k = 0; k < label.movies.length; k++) {
+                if (Objects.equals(names[label.movies[k]], names[movie])) {
+
+                    //a movie of the same name is already in, keep the lower id of the two as of does
+                    if (label.movies[k] < movie) {
+                        return label;
+                    }
+                    int[] movies = label.movies.clone();
+                    movies[k] = movie;
+                    Arrays.sort(movies);
+                    return new MovieLabelSet(this, movies);
+                }
+            }
+            at = -at - 1;
+            int[] movies = new int[label.movies.length + 1];
+            System.arraycopy(label.movies, 0, movies, 0, at);
+            movies[at] = movie;
+            System.arraycopy(label.movies, at, movies, at + 1, label.movies.length - at);
+            return new MovieLabelSet(this, movies);
+        }
+
+        //drops repeated ids and ids whose name an earlier id already has, so the label
+        //stays a set of names. labels are a few movies long, so pairwise checks are cheap
+        private int[] distinct(int[] sorted) {
+            int size = 0;
+            for (int movie : sorted) {
+                boolean seen = false;
+                for (int k = 0; k < size && !seen; k++) {
+                    seen = sorted[k] == movie || Objects.equals(names[sorted[k]], names[movie]);
+                }
+                if (!seen) {
+                    sorted[size++] = movie;
+                }
+            }
+            return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+        }
+    }
+
+    //number of movies in the label
+    @Override
+    public int size() {
+        return movies.length;
+    }
+
+    //true if one of the label's movies has this name
+    @Override
+    public boolean contains(Object name) {
+        for (int movie : movies) {
+            if (Objects.equals(table.names[movie], name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //movie names in id order
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < movies.length;
+            }
+
+            @Override
+            public String next() {
+                if (i >= movies.length) {
+                    throw new NoSuchElementException();
+                }
+                return table.names[movies[i++]];
+            }
+        };
+    }
+}
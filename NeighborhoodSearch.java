@@ -0,0 +1,230 @@
+import java.util.*;
+
+/**
+ * Breadth first searches from a group of actors at once over a CSRGraph,
+ * for questions like who is within k steps of any of these actors or how
+ * far an actor is from the nearest of them. Every source starts on level
+ * zero, so each actor is reached from the source closest to it. Searches
+ * stop at the depth limit or as soon as the target is reached, and visited
+ * actors are marked in a per-thread bitset that is cleared bit by bit
+ * afterwards, so a search costs as much as the neighborhood it explores
+ * rather than the whole graph.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class NeighborhoodSearch {
+
+    //graph every search runs over
+    public final CSRGraph graph;
+
+    //per-worker visited bits, all clear between searches
+    private final ThreadLocal<long[]> visited;
+
+    //constructor sets up searches over one graph
+    public NeighborhoodSearch(CSRGraph graph) {
+        this.graph = graph;
+        int words = (graph.numVertices() + 63) >>> 6;
+        visited = ThreadLocal.withInitial(() -> new long[words]);
+    }
+
+    /**
+     * Actors a search reached, level by level. The sources are level zero
+     * and every other actor remembers which actor it was reached from, so
+     * the path to its nearest source can be read back.
+     */
+    public static class Neighborhood {
+
+        //reached actors in bfs order, order[levelStart[d]..levelStart[d+1]) are d steps out
+        public final int[] order;
+
+        //via[i] is the position in order of the actor order[i] was reached from, -1 for a source
+        public final int[] via;
+
+        //where each level starts in order, with one extra entry for where the last one ends
+        public final int[] levelStart;
+
+        //constructor wraps arrays filled by a search
+        Neighborhood(int[] order, int[] via, int[] levelStart) {
+            this.order = order;
+            this.via = via;
+            this.levelStart = levelStart;
+        }
+
+        //number of actors reached, sources included
+        public int size() {
+            return order.length;
+        }
+
+        //steps from the sources to the farthest level reached
+        public int depth() {
+            return levelStart.length - 2;
+        }
+
+        //ids of the actors exactly d steps from the nearest source
+        public int[] level(int d) {
+            return Arrays.copyOfRange(order, levelStart[d], levelStart[d + 1]);
+        }
+
+        //ids from order[i] back to the source it was reached from, both ends included
+        public int[] path(int i) {
+            int length = 0;
+            for (int at = i; at >= 0; at = via[at]) {
+                length++;
+            }
+            int[] path = new int[length];
+            int k = 0;
+            for (int at = i; at >= 0; at = via[at]) {
+                path[k++] = order[at];
+            }
+            return path;
+        }
+    }
+
+    //every actor within k steps of any source, nearest first. actors k steps out are not
+    //expanded. a negative k explores everything the sources reach
+    public Neighborhood expand(int[] sources, int k) {
+        return search(sources, k, -1);
+    }
+
+    //search that stops as soon as target is reached, leaving it last in the neighborhood so
+    //its path and distance to the nearest source can be read off. null if no source reaches it,
+    //which the component index answers without searching
+    public Neighborhood nearest(int[] sources, int target) {
+        boolean reachable = false;
+        for (int source : sources) {
+            if (source == target) {
+                return new Neighborhood(new int[]{target}, new int[]{-1}, new int[]{0, 1});
+            }
+            reachable |= graph.components.connected(source, target);
+        }
+        return reachable ? search(sources, -1, target) : null;
+    }
+
+    //level by level bfs from every source at once, to depth limit (or all the way if limit is
+    //negative) or until target (if not -1) is reached. arrays start small and grow with the
+    //neighborhood, and the visited bits set are cleared again before returning
+    private Neighborhood search(int[] sources, int limit, int target) {
+        long[] seen = visited.get();
+        int[] offsets = graph.offsets;
+        int[] neighbors = graph.neighbors;
+        int[] order = new int[Math.max(16, sources.length)];
+        int[] via = new int[order.length];
+        int[] levelStart = new int[8];
+        int size = 0;
+        int levels = 1;
+        boolean found = false;
+
+        for (int source : sources) {
+            if ((seen[source >>> 6] & (1L << source)) == 0) {
+                seen[source >>> 6] |= 1L << source;
+                order[size] = source;
+                via[size++] = -1;
+                found |= source == target;
+            }
+        }
+        levelStart[levels++] = size;
+
+        int head = 0;
+        while (!found && head < size && (limit < 0 || levels - 2 < limit)) {
+            int levelEnd = size;
+            for (; head < levelEnd && !found; head++) {
+                int u = order[head];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = neighbors[e];
+                    if ((seen[v >>> 6] & (1L << v)) != 0) {
+                        continue;
+                    }
+                    seen[v >>> 6] |= 1L << v;
+                    if (size == order.length) {
+                        order = Arrays.copyOf(order, size * 2);
+                        via = Arrays.copyOf(via, size * 2);
+                    }
+                    order[size] = v;
+                    via[size++] = head;
+                    if (v == target) {
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (size == levelEnd) {
+                break;
+            }
+            if (levels == levelStart.length) {
+                levelStart = Arrays.copyOf(levelStart, levels * 2);
+            }
+            levelStart[levels++] = size;
+        }
+
+        for (int i = 0; i < size; i++) {
+            seen[order[i] >>> 6] &= ~(1L << order[i]);
+        }
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.bfs(graph, order, size, head);
+        }
+        return new Neighborhood(Arrays.copyOf(order, size), Arrays.copyOf(via, size),
+                Arrays.copyOf(levelStart, levels));
+    }
+
+    //main checks group searches against single source trees and times them against full bfs
+    public static void main(String[] args) throws Exception {
+        BaconGraph graph = new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt");
+        CSRGraph csr = graph.actorCSRGraph;
+        NeighborhoodSearch search = new NeighborhoodSearch(csr);
+        String[] group = {"Kevin Bacon", "Tom Hanks", "Meryl Streep"};
+        int[] sources = new int[group.length];
+        for (int i = 0; i < group.length; i++) {
+            sources[i] = csr.indexOf(group[i]);
+        }
+
+        //the distance to the group is the least distance to any member
+        ShortestPathTree[] trees = new ShortestPathTree[group.length];
+        for (int i = 0; i < group.length; i++) {
+            trees[i] = new ShortestPathTree(csr, group[i]);
+        }
+        Neighborhood all = search.expand(sources, -1);
+        boolean same = true;
+        for (int d = 0; d <= all.depth(); d++) {
+            for (int v : all.level(d)) {
+                int least = Integer.MAX_VALUE;
+                for (ShortestPathTree tree : trees) {
+                    if (tree.dist[v] >= 0) {
+                        least = Math.min(least, tree.dist[v]);
+                    }
+                }
+                same &= least == d;
+            }
+        }
+        System.out.println("group distances match single source trees: " + same);
+
+        //the generic versions over the map graph agree on who is within two steps
+        Map<String, Integer> twoSteps = GraphLib.kHopNeighborhood(graph.actorMovieGraph, Arrays.asList(group), 2);
+        Neighborhood near = search.expand(sources, 2);
+        System.out.println("within 2 steps: " + near.size() + " actors, GraphLib.kHopNeighborhood "
+                + twoSteps.size() + ", forest " + GraphLib.multiSourceBFS(graph.actorMovieGraph, Arrays.asList(group)).numVertices()
+                + " of " + all.size() + " reachable");
+
+        //the farthest actor the group reaches, found again by a search that stops on reaching it
+        int farthest = all.order[all.size() - 1];
+        Neighborhood toTarget = search.nearest(sources, farthest);
+        List<String> path = new ArrayList<>();
+        for (int v : toTarget.path(toTarget.size() - 1)) {
+            path.add(csr.actorNames[v]);
+        }
+        System.out.println("nearest member path: " + path + ", searched " + toTarget.size() + " actors");
+
+        int runs = 1000;
+        long begin = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            search.expand(sources, 1);
+        }
+        double hopTime = (System.nanoTime() - begin) / 1e6 / runs;
+        begin = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            new ShortestPathTree(csr, group[0]);
+        }
+        double treeTime = (System.nanoTime() - begin) / 1e6 / runs;
+        System.out.printf("1-hop group search %.4f ms, one full bfs %.4f ms%n", hopTime, treeTime);
+    }
+}
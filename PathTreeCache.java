@@ -0,0 +1,119 @@
+import java.util.*;
+
+/**
+ * Bounded least-recently-used cache of shortest path trees keyed by the
+ * center actor. Switching back to a center that is still cached skips its
+ * bfs entirely. Counts hits and misses so the cache size can be tuned.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class PathTreeCache {
+
+    //graph every tree is grown over, replaced when the graph is extended
+    private CSRGraph graph;
+
+    //most trees kept before the least recently used one is dropped
+    private final int capacity;
+
+    //access ordered so iteration starts at the least recently used tree
+    private final LinkedHashMap<String, ShortestPathTree> trees;
+
+    private long hits;
+    private long misses;
+
+    //constructor sets up an empty cache holding at most capacity trees
+    public PathTreeCache(CSRGraph graph, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("cache capacity must be positive: " + capacity);
+        }
+        this.graph = graph;
+        this.capacity = capacity;
+        trees = new LinkedHashMap<String, ShortestPathTree>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ShortestPathTree> eldest) {
+                return size() > PathTreeCache.this.capacity;
+            }
+        };
+    }
+
+    //tree for a center, running the bfs only if it is not cached. the bfs runs outside the
+    //lock so lookups from other sessions are not held up behind it, if two sessions miss on
+    //the same center at once the first tree stored wins
+    public ShortestPathTree get(String center) {
+        while (true) {
+            CSRGraph grownOver;
+            synchronized (this) {
+                ShortestPathTree tree = trees.get(center);
+                if (tree != null) {
+                    hits++;
+                    if (BaconMetrics.ENABLED) {
+                        BaconMetrics.cacheHit();
+                    }
+                    return tree;
+                }
+                misses++;
+                if (BaconMetrics.ENABLED) {
+                    BaconMetrics.cacheMiss();
+                }
+                grownOver = graph;
+            }
+            ShortestPathTree tree = new ShortestPathTree(grownOver, center);
+            synchronized (this) {
+                ShortestPathTree stored = trees.get(center);
+                if (stored != null) {
+                    return stored;
+                }
+
+                //a tree grown over a graph that was extended meanwhile is dropped and grown again
+                if (grownOver == graph) {
+                    trees.put(center, tree);
+                    return tree;
+                }
+            }
+        }
+    }
+
+    //tree for a center if it is cached, null otherwise. never runs a bfs, and is not counted
+    //as a hit or miss since it only re-reads a tree after an update rather than looking one up
+    public synchronized ShortestPathTree peek(String center) {
+        return trees.get(center);
+    }
+
+    //moves every cached tree over to a graph extended from the current one, repairing only the
+    //distances the new edges shorten instead of dropping the trees. touched are the new graph's
+    //ids of the actors who gained co-stars
+    public synchronized void repair(CSRGraph grown, int[] touched) {
+        for (Map.Entry<String, ShortestPathTree> entry : trees.entrySet()) {
+            entry.setValue(entry.getValue().repair(grown, touched));
+        }
+        graph = grown;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return trees.size();
+    }
+
+    //approximate bytes held by all cached trees
+    public synchronized long footprint() {
+        long bytes = 0;
+        for (ShortestPathTree tree : trees.values()) {
+            bytes += tree.footprint();
+        }
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PathTreeCache: " + trees.size() + "/" + capacity + " trees, " + hits + " hits, "
+                + misses + " misses, " + footprint() + " bytes";
+    }
+}
@@ -0,0 +1,195 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming parser for the pipe delimited input files. Reads the file through
+ * a FileChannel in large windows and scans the bytes for '|' and line breaks,
+ * handing the handler the field boundaries of every key|value record. No
+ * regex, no String[] and no substring is made per line; the handler only
+ * builds the Strings it keeps. Blank lines are skipped and a line without a
+ * key, a '|' or a value fails with the file name and line number.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class PipeFileParser {
+
+    //bytes read at a time, a single line may not be longer than this
+    static final int WINDOW = 64 << 20;
+
+    //receives the field boundaries of one record, positions are absolute in bytes
+    public interface RecordHandler {
+        void record(long line, ByteBuffer bytes, int keyStart, int keyEnd, int valueStart, int valueEnd)
+                throws IOException;
+    }
+
+    //scans every record of the file in order
+    public static void parse(String fileName, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            parse(fileName, channel, 0, channel.size(), 1, handler);
+        }
+    }
+
+    //scans the records of channel between from and to, which must both sit at line starts.
+    //firstLine is the line number reported for the line at from
+    static void parse(String fileName, FileChannel channel, long from, long to, long firstLine,
+                      RecordHandler handler) throws IOException {
+        long line = firstLine;
+        long windowStart = from;
+        byte[] window = new byte[(int) Math.min(WINDOW, to - from)];
+        ByteBuffer bytes = ByteBuffer.wrap(window);
+        while (windowStart < to) {
+            //fill the buffer from the channel, a window always starts at a line start
+            int size = (int) Math.min(window.length, to - windowStart);
+            bytes.clear().limit(size);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, windowStart + bytes.position()) < 0) {
+                    throw new IOException(fileName + ": file shrank while it was being read");
+                }
+            }
+            boolean last = windowStart + size == to;
+
+            int lineStart = 0;
+            while (lineStart < size) {
+                //find the end of this line, a partial line at the end of a window is left for the next one
+                int lineEnd = lineStart;
+                while (lineEnd < size && window[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                if (lineEnd == size && !last) {
+                    break;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && window[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+
+                if (lineEnd > lineStart) {
+                    int bar = lineStart;
+                    while (bar < lineEnd && window[bar] != '|') {
+                        bar++;
+                    }
+                    int valueEnd = bar + 1;
+                    while (valueEnd < lineEnd && window[valueEnd] != '|') {
+                        valueEnd++;
+                    }
+                    if (bar == lineStart || bar >= lineEnd - 1 || valueEnd == bar + 1) {
+                        throw new IOException(fileName + ":" + line + ": expected <id>|<value> but found \""
+                                + string(bytes, lineStart, lineEnd) + "\"");
+                    }
+                    handler.record(line, bytes, lineStart, bar, bar + 1, valueEnd);
+                }
+                line++;
+                lineStart = next;
+            }
+            if (lineStart == 0 && !last) {
+                throw new IOException(fileName + ":" + line + ": line longer than " + WINDOW + " bytes");
+            }
+            windowStart += lineStart;
+        }
+    }
+
+    //decodes bytes[start, end) as utf-8
+    public static String string(ByteBuffer bytes, int start, int end) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    //parses bytes[start, end) as a non-negative decimal int, -1 if it is not one
+    public static int parseInt(ByteBuffer bytes, int start, int end) {
+        if (end <= start || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    //true if bytes[start, end) holds exactly the characters of s, used to reuse a key String
+    public static boolean matches(ByteBuffer bytes, int start, int end, String s) {
+        if (s == null || s.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (bytes.get(start + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //the regex split reader BaconGraph used before, kept for the benchmark
+    private static long splitParse(String fileName) throws IOException {
+        long records = 0;
+        try (BufferedReader input = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = input.readLine()) != null) {
+                String[] lineList = line.split("\\|");
+                if (lineList[0] != null && lineList[1] != null) {
+                    records++;
+                }
+            }
+        }
+        return records;
+    }
+
+    //main measures parse throughput in MB/s for the regex reader and this parser
+    public static void main(String[] args) throws Exception {
+        String[] files = {"PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt"};
+        long bytes = 0;
+        for (String file : files) {
+            bytes += new File(file).length();
+        }
+        int rounds = 50;
+        long[] records = new long[1];
+        for (String file : files) {
+            parse(file, (line, buffer, keyStart, keyEnd, valueStart, valueEnd) -> records[0]++);
+        }
+
+        //warm both readers up before timing
+        for (int round = 0; round < rounds; round++) {
+            for (String file : files) {
+                splitParse(file);
+                parse(file, (line, buffer, keyStart, keyEnd, valueStart, valueEnd) -> string(buffer, valueStart, valueEnd));
+            }
+        }
+
+        long begin = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String file : files) {
+                splitParse(file);
+            }
+        }
+        double splitSeconds = (System.nanoTime() - begin) / 1e9;
+
+        begin = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String file : files) {
+                parse(file, (line, buffer, keyStart, keyEnd, valueStart, valueEnd) -> string(buffer, valueStart, valueEnd));
+            }
+        }
+        double parseSeconds = (System.nanoTime() - begin) / 1e9;
+
+        double megabytes = bytes * (double) rounds / (1 << 20);
+        System.out.println(records[0] + " records, " + bytes + " bytes per round");
+        System.out.printf("regex split reader: %.1f MB/s%n", megabytes / splitSeconds);
+        System.out.printf("byte scanning parser: %.1f MB/s%n", megabytes / parseSeconds);
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Random walks over a CSRGraph. Each step picks a co-star with one random
+ * index into the actor's slice of the neighbor array, so a step costs the
+ * same whatever the actor's degree. Batches of walks run in parallel and
+ * land in one flat int array, and every block of walks draws from its own
+ * SplittableRandom split off a seeded root, so a seed gives the same walks
+ * however many cores share the work.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class RandomWalker {
+
+    //walks per random stream and per parallel task
+    static final int BLOCK = 1024;
+
+    //longest array the JVM reliably allocates
+    static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+    //graph the walks move over
+    public final CSRGraph graph;
+
+    //constructor walks over the given graph
+    public RandomWalker(CSRGraph graph) {
+        this.graph = graph;
+    }
+
+    //walks steps steps from start into path[from..from+steps], returns how many actors the
+    //walk visited including start. a walk stuck on an actor with no co-stars stops there
+    //and the rest of its slots are left as -1
+    public int walk(int start, int steps, SplittableRandom random, int[] path, int from) {
+        int[] offsets = graph.offsets;
+        int[] neighbors = graph.neighbors;
+        int current = start;
+        path[from] = current;
+        int i = 1;
+        for (; i <= steps; i++) {
+            int begin = offsets[current];
+            int degree = offsets[current + 1] - begin;
+            if (degree == 0) {
+                break;
+            }
+            current = neighbors[begin + random.nextInt(degree)];
+            path[from + i] = current;
+        }
+        Arrays.fill(path, from + i, from + steps + 1, -1);
+        return i;
+    }
+
+    //one walk per start, walk w in walks[w * (steps + 1) .. (w + 1) * (steps + 1)) as actor ids
+    public int[] walks(int[] starts, int steps, long seed) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("steps must not be negative: " + steps);
+        }
+        int stride = arrayLength(1, steps + 1L, "a walk of " + steps + " steps");
+        int[] walks = new int[arrayLength(starts.length, stride, starts.length + " walks of " + steps + " steps")];
+        int blocks = (starts.length + BLOCK - 1) / BLOCK;
+
+        //streams are split off in block order before any work starts so the seed alone decides them
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            streams[b] = root.split();
+        }
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int end = (int) Math.min(starts.length, (long) (b + 1) * BLOCK);
+            for (int w = b * BLOCK; w < end; w++) {
+                walk(starts[w], steps, streams[b], walks, w * stride);
+            }
+        });
+        return walks;
+    }
+
+    //count walks from every actor in turn, for sampling and embedding training sets
+    public int[] walksFromEveryActor(int count, int steps, long seed) {
+        int n = graph.numVertices();
+        int[] starts = new int[arrayLength(n, count, count + " walks from each of " + n + " actors")];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = i % n;
+        }
+        return walks(starts, steps, seed);
+    }
+
+    //count * each as an array length, multiplied as longs and rejected past what one array can
+    //hold instead of overflowing. what says what the array was for. both are at most an int
+    //plus one, so the long product cannot overflow
+    private static int arrayLength(long count, long each, String what) {
+        if (count < 0 || each < 0) {
+            throw new IllegalArgumentException(what + ": negative size");
+        }
+        long length = count * each;
+        if (length > MAX_ARRAY) {
+            throw new IllegalArgumentException(what + " would take " + length + " slots, more than one array holds ("
+                    + MAX_ARRAY + ")");
+        }
+        return (int) length;
+    }
+
+    //one walk by name as a list of names, the same shape GraphLib.randomWalk returns.
+    //null if start is not in the graph
+    public List<String> walk(String start, int steps, long seed) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("steps must not be negative: " + steps);
+        }
+        int source = graph.indexOf(start);
+        if (source < 0) {
+            return null;
+        }
+        int[] path = new int[steps + 1];
+        int length = walk(source, steps, new SplittableRandom(seed), path, 0);
+        List<String> names = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            names.add(graph.actorNames[path[i]]);
+        }
+        return names;
+    }
+
+    //main times a batch of walks from every actor against GraphLib.randomWalk on the map graph
+    public static void main(String[] args) throws Exception {
+        BaconGraph graph = new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt");
+        RandomWalker walker = new RandomWalker(graph.actorCSRGraph);
+        int steps = 80;
+        int count = 10;
+
+        walker.walksFromEveryActor(count, steps, 1);
+        long begin = System.nanoTime();
+        int[] walks = walker.walksFromEveryActor(count, steps, 1);
+        double batchTime = (System.nanoTime() - begin) / 1e6;
+        System.out.println("same seed, same walks: " + Arrays.equals(walks, walker.walksFromEveryActor(count, steps, 1)));
+
+        begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            for (String actor : graph.actorCSRGraph.actorNames) {
+                GraphLib.randomWalk(graph.actorMovieGraph, actor, steps);
+            }
+        }
+        double mapTime = (System.nanoTime() - begin) / 1e6;
+
+        long total = (long) graph.actorCSRGraph.numVertices() * count;
+        System.out.printf("%,d walks of %d steps: GraphLib.randomWalk %.0f ms, batch %.0f ms%n",
+                total, steps, mapTime, batchTime);
+        System.out.println(walker.walk("Kevin Bacon", 10, 7));
+    }
+}
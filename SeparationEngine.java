@@ -0,0 +1,157 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the average separation of every actor in parallel. Each source
+ * gets a direction-optimizing int bfs over a CSRGraph instead of a tree
+ * graph, and every worker thread reuses its own search and its buffers, so
+ * ranking all actors allocates nothing per source.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class SeparationEngine {
+
+    //graph every bfs runs over
+    private final CSRGraph graph;
+
+    //per-worker direction-optimizing searches, each with its own buffers
+    private final ThreadLocal<DirectionOptimizingBFS> searches;
+
+    //per-worker statistics reused by every source the worker ranks
+    private final ThreadLocal<SeparationStats> workerStats = ThreadLocal.withInitial(SeparationStats::new);
+
+    //constructor sets up the engine for one graph
+    public SeparationEngine(CSRGraph graph) {
+        this.graph = graph;
+        searches = ThreadLocal.withInitial(() -> new DirectionOptimizingBFS(graph, false, false));
+    }
+
+    //bfs from source filling dist for every reached actor and the queue in visit order.
+    //dist must be all -1 on entry, returns the number of actors reached including source
+    public int bfs(int source, int[] dist, int[] queue) {
+        DirectionOptimizingBFS search = searches.get();
+        int tail = search.run(source);
+        for (int i = 0; i < tail; i++) {
+            int v = search.queue[i];
+            queue[i] = v;
+            dist[v] = search.dist[v];
+        }
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.bfs(tail, search.edgesScanned);
+        }
+        return tail;
+    }
+
+    //bfs from source one whole level at a time, filling stats with the reach, mean, eccentricity
+    //and histogram, and the distance to target if target is not -1. uses the calling thread's
+    //search, so it allocates nothing once the histogram is deep enough
+    public SeparationStats stats(int source, int target, SeparationStats stats) {
+        DirectionOptimizingBFS search = searches.get();
+        stats.reset(source);
+        search.start(source);
+        do {
+            stats.level(search.depth, search.levelEnd - search.levelStart);
+        } while (search.step());
+
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.bfs(search.levelEnd, search.edgesScanned);
+        }
+        if (target >= 0) {
+            stats.targetDistance = search.dist[target];
+        }
+        return stats;
+    }
+
+    //total distance from source to the size actors of its component, or -1 as soon as the
+    //total is sure to go over limit. after each level the actors not reached yet are all at
+    //least one level past the newest frontier, which bounds the total from below, so a
+    //source that cannot beat limit stops after a few levels instead of finishing its bfs
+    public long farness(int source, int size, long limit) {
+        DirectionOptimizingBFS search = searches.get();
+        long sum = 0;
+        search.start(source);
+        while (search.step()) {
+            sum += (long) (search.levelEnd - search.levelStart) * search.depth;
+            if (sum + (long) (size - search.levelEnd) * (search.depth + 1) > limit) {
+                sum = -1;
+                break;
+            }
+        }
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.bfs(search.levelEnd, search.edgesScanned);
+        }
+        return sum;
+    }
+
+    //statistics for one actor by name, null if the actor is not in the graph
+    public SeparationStats stats(String actor) {
+        int source = graph.indexOf(actor);
+        return source < 0 ? null : stats(source, -1, new SeparationStats());
+    }
+
+    //average distance from source to every actor it reaches, or NaN if target is
+    //given and not reached
+    public double averageSeparation(int source, int target) {
+        SeparationStats stats = stats(source, target, workerStats.get());
+        return target < 0 || stats.targetDistance >= 0 ? stats.mean() : Double.NaN;
+    }
+
+    //average separation of every actor whose bfs reaches the target actor, computed
+    //across all cores. the same values GraphLib.averageSeparation gives per tree
+    public Map<String, Double> averageSeparations(String target) {
+        int n = graph.numVertices();
+        int goal = graph.indexOf(target);
+        double[] averages = new double[n];
+        if (goal < 0) {
+            return new HashMap<>();
+        }
+        //only actors in the target's component can reach it, the rest never start a bfs
+        Arrays.fill(averages, Double.NaN);
+        int[] members = graph.components.members(graph.components.component[goal]);
+        IntStream.range(0, members.length).parallel().forEach(i ->
+                averages[members[i]] = averageSeparation(members[i], goal));
+
+        Map<String, Double> sepMap = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (!Double.isNaN(averages[v])) {
+                sepMap.put(graph.actorNames[v], averages[v]);
+            }
+        }
+        return sepMap;
+    }
+
+    //main checks the parallel ranking against the per-actor tree version and times both
+    public static void main(String[] args) throws Exception {
+        BaconGraph graph = new BaconGraph("PS4/actors.txt", "PS4/movies.txt", "PS4/movie-actors.txt");
+        SeparationEngine engine = new SeparationEngine(graph.actorCSRGraph);
+        String target = "Kevin Bacon";
+
+        long begin = System.nanoTime();
+        Map<String, Double> expected = new HashMap<>();
+        for (String actorName : graph.actorIDtoName.values()) {
+            Graph<String, Set<String>> bfs = GraphLib.bfs(graph.actorMovieGraph, actorName);
+            if (bfs.hasVertex(target)) {
+                expected.put(actorName, GraphLib.averageSeparation(bfs, actorName));
+            }
+        }
+        double treeTime = (System.nanoTime() - begin) / 1e6;
+
+        engine.averageSeparations(target);
+        begin = System.nanoTime();
+        Map<String, Double> actual = engine.averageSeparations(target);
+        double parallelTime = (System.nanoTime() - begin) / 1e6;
+
+        begin = System.nanoTime();
+        for (int v = 0; v < graph.actorCSRGraph.numVertices(); v++) {
+            engine.averageSeparation(v, graph.actorCSRGraph.indexOf(target));
+        }
+        double sequentialTime = (System.nanoTime() - begin) / 1e6;
+
+        System.out.println("identical averages: " + expected.equals(actual));
+        System.out.println(target + ": " + engine.stats(target));
+        System.out.printf("tree bfs per actor: %.0f ms%n", treeTime);
+        System.out.printf("int bfs, 1 thread: %.0f ms%n", sequentialTime);
+        System.out.printf("int bfs, %d cores: %.0f ms%n", Runtime.getRuntime().availableProcessors(), parallelTime);
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Arrays;
+
+/**
+ * Summary of one breadth first search: how many actors were reached, the
+ * total and mean separation from the source, the eccentricity, and how many
+ * actors sit at each distance. Filled level by level while the search runs,
+ * and meant to be reused between searches, so once the histogram has grown
+ * to the deepest level seen, collecting statistics allocates nothing.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class SeparationStats {
+
+    //dense id of the actor the search started from
+    public int source = -1;
+
+    //actors reached including the source
+    public int reached;
+
+    //sum of the distances from the source to every reached actor
+    public long total;
+
+    //distance to the farthest reached actor
+    public int eccentricity;
+
+    //distance to the target the search was asked about, -1 if none was given or it was not reached
+    public int targetDistance = -1;
+
+    //histogram[d] is the number of actors exactly d steps away, valid up to eccentricity
+    public int[] histogram = new int[16];
+
+    //clears the totals for a new search, keeping the histogram array
+    public void reset(int source) {
+        this.source = source;
+        reached = 0;
+        total = 0;
+        eccentricity = 0;
+        targetDistance = -1;
+    }
+
+    //records one whole bfs level of count actors depth steps from the source
+    public void level(int depth, int count) {
+        if (depth >= histogram.length) {
+            histogram = Arrays.copyOf(histogram, Math.max(depth + 1, 2 * histogram.length));
+        }
+        histogram[depth] = count;
+        reached += count;
+        total += (long) depth * count;
+        eccentricity = depth;
+    }
+
+    //average distance from the source to every other reached actor, NaN if it reached no one
+    public double mean() {
+        return total / (reached - 1.0);
+    }
+
+    //number of actors between low and high steps away inclusive
+    public int within(int low, int high) {
+        int count = 0;
+        for (int d = Math.max(low, 0); d <= Math.min(high, eccentricity); d++) {
+            count += histogram[d];
+        }
+        return count;
+    }
+
+    //copy of the used part of the histogram
+    public int[] histogram() {
+        return Arrays.copyOf(histogram, eccentricity + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "reached " + reached + ", mean " + mean() + ", eccentricity " + eccentricity
+                + ", histogram " + Arrays.toString(histogram());
+    }
+}
@@ -0,0 +1,333 @@
+import java.util.*;
+
+/**
+ * Shortest path tree from one actor over a CSRGraph, kept as parent and
+ * distance arrays instead of a tree graph. Implements Graph the same way the
+ * tree returned by GraphLib.bfs does (each reached actor has one out edge to
+ * its parent, labeled with the movies they share), so getPath,
+ * missingVertices and averageSeparation work on it unchanged.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class ShortestPathTree implements Graph<String, Set<String>> {
+
+    //graph the tree was grown over
+    public final CSRGraph graph;
+
+    //dense id of the root
+    public final int source;
+
+    //parent[v] is v's neighbor one step closer to source, -1 if v was not reached, source for source
+    public final int[] parent;
+
+    //dist[v] is the number of steps from source to v, -1 if v was not reached
+    public final int[] dist;
+
+    //reached actors in bfs order, so distances never decrease along it
+    public final int[] order;
+
+    //order[levelStart[d]..levelStart[d+1]) holds the actors exactly d steps from source
+    public final int[] levelStart;
+
+    //constructor runs a direction-optimizing bfs from source and keeps its parents and
+    //distances. dense middle levels are found bottom-up, split across cores
+    public ShortestPathTree(CSRGraph graph, String source) {
+        this.graph = graph;
+        this.source = graph.indexOf(source);
+        if (this.source < 0) {
+            throw new IllegalArgumentException(source + " is not in the graph");
+        }
+        DirectionOptimizingBFS search = new DirectionOptimizingBFS(graph, true, true);
+        int tail = search.run(this.source);
+        parent = search.parent;
+        dist = search.dist;
+        order = Arrays.copyOf(search.queue, tail);
+        if (BaconMetrics.ENABLED) {
+            BaconMetrics.bfs(tail, search.edgesScanned);
+        }
+
+        //bfs order is already grouped by distance, so the levels are just where the distance steps up
+        levelStart = new int[dist[order[tail - 1]] + 2];
+        for (int i = 1; i < tail; i++) {
+            if (dist[order[i]] != dist[order[i - 1]]) {
+                levelStart[dist[order[i]]] = i;
+            }
+        }
+        levelStart[levelStart.length - 1] = tail;
+    }
+
+    //constructor wraps repaired parent and distance arrays, regrouping the reached actors by distance
+    private ShortestPathTree(CSRGraph graph, int source, int[] parent, int[] dist) {
+        this.graph = graph;
+        this.source = source;
+        this.parent = parent;
+        this.dist = dist;
+        int depth = 0;
+        for (int d : dist) {
+            depth = Math.max(depth, d);
+        }
+        levelStart = new int[depth + 2];
+        for (int d : dist) {
+            if (d >= 0) {
+                levelStart[d + 1]++;
+            }
+        }
+        for (int d = 0; d <= depth; d++) {
+            levelStart[d + 1] += levelStart[d];
+        }
+        order = new int[levelStart[depth + 1]];
+        int[] fill = Arrays.copyOf(levelStart, depth + 1);
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] >= 0) {
+                order[fill[dist[v]]++] = v;
+            }
+        }
+    }
+
+    //this tree carried over to a graph grown from this one by CSRGraph.extend. touched holds
+    //the new graph's ids of every actor who gained co-stars. the edges around them are relaxed
+    //and only actors who got closer are visited again, nearest first, so everything the new
+    //edges cannot shorten keeps its distance and parent without being looked at
+    public ShortestPathTree repair(CSRGraph grown, int[] touched) {
+        int n = grown.numVertices();
+        int[] newParent = Arrays.copyOf(parent, n);
+        int[] newDist = Arrays.copyOf(dist, n);
+        for (int v = dist.length; v < n; v++) {
+            newParent[v] = -1;
+            newDist[v] = -1;
+        }
+
+        //seed with every actor a new edge brings closer, in both directions across each edge
+        long[] seeds = new long[16];
+        int seedCount = 0;
+        for (int u : touched) {
+            for (int e = grown.offsets[u]; e < grown.offsets[u + 1]; e++) {
+                int v = grown.neighbors[e];
+                for (int side = 0; side < 2; side++) {
+                    int from = side == 0 ? v : u;
+                    int to = side == 0 ? u : v;
+                    if (newDist[from] >= 0 && (newDist[to] < 0 || newDist[from] + 1 < newDist[to])) {
+                        newDist[to] = newDist[from] + 1;
+                        newParent[to] = from;
+                        if (seedCount == seeds.length) {
+                            seeds = Arrays.copyOf(seeds, 2 * seedCount);
+                        }
+                        seeds[seedCount++] = ((long) newDist[to] << 32) | to;
+                    }
+                }
+            }
+        }
+        Arrays.sort(seeds, 0, seedCount);
+
+        //settle closer actors in distance order, taking whichever of the next seed and the
+        //queue head is nearer, and skipping seeds whose distance has since dropped again
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        int next = 0;
+        while (next < seedCount || head < tail) {
+            int u;
+            if (head < tail && (next == seedCount || newDist[queue[head]] <= (int) (seeds[next] >>> 32))) {
+                u = queue[head++];
+            }
+            else {
+                long seed = seeds[next++];
+                u = (int) seed;
+                if (newDist[u] != (int) (seed >>> 32)) {
+                    continue;
+                }
+            }
+            for (int e = grown.offsets[u]; e < grown.offsets[u + 1]; e++) {
+                int v = grown.neighbors[e];
+                if (newDist[v] < 0 || newDist[u] + 1 < newDist[v]) {
+                    newDist[v] = newDist[u] + 1;
+                    newParent[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return new ShortestPathTree(grown, source, newParent, newDist);
+    }
+
+    //greatest distance from the root to any reached actor
+    public int eccentricity() {
+        return levelStart.length - 2;
+    }
+
+    //fills stats straight from the levels, no walk over the tree needed
+    public SeparationStats stats(SeparationStats stats) {
+        stats.reset(source);
+        for (int d = 0; d + 1 < levelStart.length; d++) {
+            stats.level(d, levelStart[d + 1] - levelStart[d]);
+        }
+        return stats;
+    }
+
+    //actors between low and high steps from the root inclusive, closest first, read off the levels
+    public List<String> withinDistance(int low, int high) {
+        low = Math.max(low, 0);
+        high = Math.min(high, eccentricity());
+        List<String> found = new ArrayList<>();
+        if (low > high) {
+            return found;
+        }
+        for (int i = levelStart[low]; i < levelStart[high + 1]; i++) {
+            found.add(graph.actorNames[order[i]]);
+        }
+        return found;
+    }
+
+    //actors the bfs never reached, in id order
+    public List<String> unreached() {
+        List<String> missing = new ArrayList<>();
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] < 0) {
+                missing.add(graph.actorNames[v]);
+            }
+        }
+        return missing;
+    }
+
+    //steps from the root to an actor, -1 if the actor is unreachable or unknown
+    public int distance(String actor) {
+        int v = graph.indexOf(actor);
+        return v < 0 ? -1 : dist[v];
+    }
+
+    //approximate bytes held by the tree's own arrays
+    public long footprint() {
+        return 4L * (parent.length + dist.length + order.length + levelStart.length);
+    }
+
+    //dense id of a reached actor, -1 otherwise
+    private int reachedIndex(String actor) {
+        int v = graph.indexOf(actor);
+        return v >= 0 && dist[v] >= 0 ? v : -1;
+    }
+
+    @Override
+    public int numVertices() {
+        return order.length;
+    }
+
+    @Override
+    public int numEdges() {
+        return order.length - 1;
+    }
+
+    @Override
+    public Iterable<String> vertices() {
+        return () -> new Iterator<String>() {
+            int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < order.length;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return graph.actorNames[order[i++]];
+            }
+        };
+    }
+
+    @Override
+    public boolean hasVertex(String v) {
+        return reachedIndex(v) >= 0;
+    }
+
+    //every reached actor except the root points to its parent
+    @Override
+    public int outDegree(String v) {
+        int u = reachedIndex(v);
+        return u < 0 || u == source ? 0 : 1;
+    }
+
+    //children are the neighbors whose parent is v
+    @Override
+    public int inDegree(String v) {
+        int count = 0;
+        for (String ignored : inNeighbors(v)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Iterable<String> outNeighbors(String v) {
+        int u = reachedIndex(v);
+        if (u < 0 || u == source) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(graph.actorNames[parent[u]]);
+    }
+
+    @Override
+    public Iterable<String> inNeighbors(String v) {
+        int u = reachedIndex(v);
+        List<String> children = new ArrayList<>();
+        if (u < 0) {
+            return children;
+        }
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+            int child = graph.neighbors[e];
+            if (parent[child] == u && child != source) {
+                children.add(graph.actorNames[child]);
+            }
+        }
+        return children;
+    }
+
+    @Override
+    public boolean hasEdge(String u, String v) {
+        int a = reachedIndex(u);
+        int b = reachedIndex(v);
+        return a >= 0 && b >= 0 && a != source && parent[a] == b;
+    }
+
+    //label of the child -> parent edge is the movies the two share
+    @Override
+    public Set<String> getLabel(String u, String v) {
+        return hasEdge(u, v) ? graph.getLabel(v, u) : null;
+    }
+
+    @Override
+    public void insertVertex(String v) {
+        throw new UnsupportedOperationException("ShortestPathTree is read-only");
+    }
+
+    @Override
+    public void insertDirected(String u, String v, Set<String> e) {
+        throw new UnsupportedOperationException("ShortestPathTree is read-only");
+    }
+
+    @Override
+    public void insertUndirected(String u, String v, Set<String> e) {
+        throw new UnsupportedOperationException("ShortestPathTree is read-only");
+    }
+
+    @Override
+    public void removeVertex(String v) {
+        throw new UnsupportedOperationException("ShortestPathTree is read-only");
+    }
+
+    @Override
+    public void removeDirected(String u, String v) {
+        throw new UnsupportedOperationException("ShortestPathTree is read-only");
+    }
+
+    @Override
+    public void removeUndirected(String u, String v) {
+        throw new UnsupportedOperationException("ShortestPathTree is read-only");
+    }
+
+    @Override
+    public String toString() {
+        return "ShortestPathTree from " + graph.actorNames[source] + ": " + order.length + " actors reached";
+    }
+}
@@ -0,0 +1,176 @@
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Two way table between names and dense int ids. Each name is stored once and
+ * handed back as the same String instance, so other structures can share it.
+ * Exact lookups are a hash lookup in either direction. Looser lookups go
+ * through a normalized key that ignores case, accents and extra whitespace,
+ * and a sorted index of those keys answers prefix searches for autocomplete.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class SymbolTable {
+
+    //names by id, and ids by exact name
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    //ids by normalized name, more than one name can share a key
+    private final Map<String, int[]> normalized = new HashMap<>();
+
+    //normalized keys in sorted order with their ids, rebuilt on the first prefix search after an add
+    private String[] sortedKeys;
+    private int[] sortedIds;
+
+    //constructor makes an empty table
+    public SymbolTable() {
+    }
+
+    //constructor makes a table whose ids follow the order of names, repeats keep their first id
+    public SymbolTable(Iterable<String> names) {
+        for (String name : names) {
+            add(name);
+        }
+    }
+
+    //constructor copies another table, so names can be added to the copy while readers keep using the original
+    public SymbolTable(SymbolTable other) {
+        synchronized (other) {
+            names.addAll(other.names);
+            ids.putAll(other.ids);
+            normalized.putAll(other.normalized);
+        }
+    }
+
+    //id of name, adding it with the next id if it is new. final since the constructor calls it
+    public final synchronized int add(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        id = names.size();
+        names.add(name);
+        ids.put(name, id);
+        String key = normalize(name);
+        int[] same = normalized.get(key);
+        if (same == null) {
+            normalized.put(key, new int[]{id});
+        }
+        else {
+            int[] grown = Arrays.copyOf(same, same.length + 1);
+            grown[same.length] = id;
+            normalized.put(key, grown);
+        }
+        sortedKeys = null;
+        return id;
+    }
+
+    //id of exactly this name, -1 if it is not in the table
+    public int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    //the stored instance of the name with this id
+    public String name(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    //id for what a user typed: the exact name if present, otherwise the one name that matches
+    //ignoring case, accents and spacing. -1 if nothing or more than one name matches
+    public int lookup(String query) {
+        int id = id(query);
+        if (id >= 0) {
+            return id;
+        }
+        int[] same = normalized.get(normalize(query));
+        return same != null && same.length == 1 ? same[0] : -1;
+    }
+
+    //every name that matches the query ignoring case, accents and spacing
+    public List<String> matches(String query) {
+        List<String> found = new ArrayList<>();
+        int[] same = normalized.get(normalize(query));
+        if (same != null) {
+            for (int id : same) {
+                found.add(names.get(id));
+            }
+        }
+        return found;
+    }
+
+    //up to limit names whose normalized form starts with the normalized prefix, in key order
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        String[] keys;
+        int[] keyIds;
+        synchronized (this) {
+            if (sortedKeys == null) {
+                buildPrefixIndex();
+            }
+            keys = sortedKeys;
+            keyIds = sortedIds;
+        }
+        List<String> found = new ArrayList<>();
+        int i = Arrays.binarySearch(keys, key);
+        for (i = i < 0 ? -i - 1 : i; i < keys.length && found.size() < limit && keys[i].startsWith(key); i++) {
+            found.add(names.get(keyIds[i]));
+        }
+        return found;
+    }
+
+    //sorts one (key, id) entry per name so prefix matches sit next to each other
+    private void buildPrefixIndex() {
+        Integer[] order = new Integer[names.size()];
+        String[] keys = new String[names.size()];
+        for (int id = 0; id < keys.length; id++) {
+            order[id] = id;
+            keys[id] = normalize(names.get(id));
+        }
+        Arrays.sort(order, Comparator.comparing((Integer id) -> keys[id]).thenComparing(id -> id));
+        sortedKeys = new String[order.length];
+        sortedIds = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedIds[i] = order[i];
+        }
+    }
+
+    //lower case, accents removed and runs of whitespace collapsed to one space
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        boolean ascii = true;
+        for (int i = 0; i < name.length() && ascii; i++) {
+            ascii = name.charAt(i) < 0x80;
+        }
+        String decomposed = ascii ? name : Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                    || type == Character.COMBINING_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+                continue;
+            }
+            if (space) {
+                key.append(' ');
+                space = false;
+            }
+            key.append(Character.toLowerCase(c));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,78 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes actor, movie and movie-actor files of any size in the same
+ * id|value format as the real data, for scaling runs of the benchmarks.
+ * Casting is skewed so a few actors appear in many movies like the real
+ * hubs do, and actor 1 is always named Kevin Bacon so the game has its
+ * usual center. The same arguments always produce the same files.
+ *
+ * @author Shad Hassan, Dartmouth CS10, Winter 2025
+ *
+ */
+public class SyntheticGraph {
+
+    //file names inside the output directory
+    public static final String ACTORS = "actors.txt";
+    public static final String MOVIES = "movies.txt";
+    public static final String MOVIE_ACTORS = "movie-actors.txt";
+
+    //writes the three files into directory and returns it
+    public static File generate(File directory, int actors, int movies, int averageCast, long seed) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("could not create " + directory);
+        }
+        Random random = new Random(seed);
+
+        try (PrintWriter out = writer(new File(directory, ACTORS))) {
+            out.print("1|Kevin Bacon");
+            for (int actor = 2; actor <= actors; actor++) {
+                out.print("\n" + actor + "|Actor " + actor);
+            }
+        }
+
+        try (PrintWriter out = writer(new File(directory, MOVIES))) {
+            for (int movie = 1; movie <= movies; movie++) {
+                out.print((movie == 1 ? "" : "\n") + movie + "|Movie " + movie + " (" + (1950 + movie % 70) + ")");
+            }
+        }
+
+        //cast sizes spread around the average, actors drawn with a quadratic skew toward low ids
+        try (PrintWriter out = writer(new File(directory, MOVIE_ACTORS))) {
+            boolean first = true;
+            for (int movie = 1; movie <= movies; movie++) {
+                int cast = 1 + random.nextInt(2 * averageCast);
+                Set<Integer> chosen = new LinkedHashSet<>();
+                while (chosen.size() < Math.min(cast, actors)) {
+                    double skew = random.nextDouble();
+                    chosen.add(1 + (int) (skew * skew * actors));
+                }
+                for (int actor : chosen) {
+                    out.print((first ? "" : "\n") + movie + "|" + actor);
+                    first = false;
+                }
+            }
+        }
+        return directory;
+    }
+
+    //buffered utf-8 writer for one output file
+    private static PrintWriter writer(File file) throws IOException {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    //main writes a data set: <directory> <actors> <movies> <average cast> [seed]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.out.println("usage: SyntheticGraph <directory> <actors> <movies> <average cast> [seed]");
+            return;
+        }
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        File directory = generate(new File(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), seed);
+        System.out.println("wrote " + directory);
+    }
+}